@@ -0,0 +1,30 @@
+package com.fleamarket.benchmark;
+
+import com.fleamarket.FleaMarketApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Starts the application without the web layer on top of an in-memory H2 database. The settings
+ * are passed as command-line arguments, because default properties would lose to the Postgres
+ * settings in application.properties.
+ */
+final class BenchmarkContext {
+
+  private BenchmarkContext() {}
+
+  static ConfigurableApplicationContext start(String databaseName) {
+    return new SpringApplicationBuilder(FleaMarketApplication.class)
+        .web(WebApplicationType.NONE)
+        .run(
+            "--spring.datasource.url=jdbc:h2:mem:" + databaseName + ";DB_CLOSE_DELAY=-1",
+            "--spring.datasource.username=sa",
+            "--spring.datasource.password=",
+            "--spring.jpa.database=h2",
+            "--spring.jpa.hibernate.ddl-auto=create",
+            "--spring.sql.init.mode=never",
+            "--fleamarket.sellers.unbounded-listing-enabled=true",
+            "--logging.level.root=warn");
+  }
+}
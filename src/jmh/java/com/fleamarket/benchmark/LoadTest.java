@@ -0,0 +1,96 @@
+package com.fleamarket.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Closed-loop HTTP load generator for comparing the platform and virtual thread modes. Every client
+ * sends requests back to back until the duration runs out, then throughput, latency percentiles and
+ * the share of non-2xx responses are printed.
+ *
+ * <p>Arguments: {@code <url> <clients> <seconds>}
+ */
+public final class LoadTest {
+  private static final String DEFAULT_URL = "http://localhost:8080/sellers/getSellersPage";
+
+  private LoadTest() {}
+
+  public static void main(String[] args) throws Exception {
+    URI uri = URI.create(args.length > 0 ? args[0] : DEFAULT_URL);
+    int clients = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+    Duration duration = Duration.ofSeconds(args.length > 2 ? Long.parseLong(args[2]) : 30);
+
+    HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    HttpRequest request = HttpRequest.newBuilder(uri).GET().build();
+    long deadline = System.nanoTime() + duration.toNanos();
+
+    ExecutorService executor = Executors.newFixedThreadPool(clients);
+    List<Future<long[]>> results = new ArrayList<>(clients);
+    for (int i = 0; i < clients; i++) {
+      results.add(executor.submit(() -> runClient(httpClient, request, deadline)));
+    }
+    List<Long> latencies = new ArrayList<>();
+    long errors = 0;
+    for (Future<long[]> result : results) {
+      long[] clientResult = result.get();
+      errors += clientResult[0];
+      for (int i = 1; i < clientResult.length; i++) {
+        latencies.add(clientResult[i]);
+      }
+    }
+    executor.shutdown();
+    executor.awaitTermination(1, TimeUnit.MINUTES);
+
+    long[] sorted = latencies.stream().mapToLong(Long::longValue).toArray();
+    Arrays.sort(sorted);
+    System.out.printf(
+        "requests=%d throughput=%.1f req/s p50=%.2f ms p99=%.2f ms errors=%.2f%%%n",
+        sorted.length,
+        sorted.length / (double) duration.toSeconds(),
+        percentile(sorted, 0.50),
+        percentile(sorted, 0.99),
+        sorted.length == 0 ? 0 : 100.0 * errors / sorted.length);
+  }
+
+  private static long[] runClient(HttpClient httpClient, HttpRequest request, long deadline) {
+    List<Long> latencies = new ArrayList<>();
+    long errors = 0;
+    while (System.nanoTime() < deadline) {
+      long start = System.nanoTime();
+      try {
+        HttpResponse<Void> response =
+            httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() / 100 != 2) {
+          errors++;
+        }
+      } catch (Exception ex) {
+        errors++;
+      }
+      latencies.add(System.nanoTime() - start);
+    }
+    long[] result = new long[latencies.size() + 1];
+    result[0] = errors;
+    for (int i = 0; i < latencies.size(); i++) {
+      result[i + 1] = latencies.get(i);
+    }
+    return result;
+  }
+
+  private static double percentile(long[] sorted, double percentile) {
+    if (sorted.length == 0) {
+      return 0;
+    }
+    int index = (int) Math.ceil(percentile * sorted.length) - 1;
+    return sorted[Math.max(index, 0)] / 1_000_000.0;
+  }
+}
@@ -0,0 +1,126 @@
+package com.fleamarket.benchmark;
+
+import com.fleamarket.dao.SellerRepository;
+import com.fleamarket.service.SellerService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Measures the service hot paths against a seller whose catalogue holds {@link #catalogueSize}
+ * products.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SellerServiceBenchmark {
+  private static final String SELLER = "benchmarkSeller";
+  private static final int OTHER_SELLERS = 1000;
+
+  @Param({"10", "1000", "100000"})
+  public int catalogueSize;
+
+  private final AtomicLong counter = new AtomicLong();
+  private ConfigurableApplicationContext context;
+  private SellerService sellerService;
+  private SellerRepository sellerRepository;
+  private JdbcTemplate jdbcTemplate;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    context = BenchmarkContext.start("sellers" + catalogueSize);
+    sellerService = context.getBean(SellerService.class);
+    sellerRepository = context.getBean(SellerRepository.class);
+    jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+    sellerService.createSeller(SELLER);
+    List<String> products = new ArrayList<>(catalogueSize);
+    for (int i = 0; i < catalogueSize; i++) {
+      products.add("product-" + i);
+    }
+    sellerService.addProductsToSeller(products, SELLER);
+    for (int i = 0; i < OTHER_SELLERS; i++) {
+      sellerService.createSeller("seller-" + i);
+    }
+  }
+
+  /**
+   * Removes what {@link #addAndDeleteProduct} leaves behind, a soft-deleted product and two outbox
+   * events per invocation, so the data set does not grow from one iteration to the next.
+   */
+  @TearDown(Level.Iteration)
+  public void resetIteration() {
+    jdbcTemplate.update("delete from products where deleted_at is not null");
+    jdbcTemplate.update("delete from outbox_events");
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public Object findSellerCached() {
+    return sellerService.getSellerId(SELLER);
+  }
+
+  @Benchmark
+  public Object findSellerUncached() {
+    return sellerRepository.findSellerSummaryBySellerName(SELLER);
+  }
+
+  @Benchmark
+  public void addAndDeleteProduct() {
+    String product = "new-product-" + counter.incrementAndGet();
+    sellerService.addProductToSeller(product, SELLER);
+    sellerService.deleteProduct(product, SELLER);
+  }
+
+  @Benchmark
+  public void renameProduct() {
+    sellerService.changeProduct("product-0", "renamed-product", SELLER);
+    sellerService.changeProduct("renamed-product", "product-0", SELLER);
+  }
+
+  @Benchmark
+  public Object getAllProducts() {
+    return sellerService.getAllProducts(SELLER);
+  }
+
+  @Benchmark
+  public long exportProducts() {
+    AtomicLong exported = new AtomicLong();
+    Long sellerId = sellerService.getSellerId(SELLER);
+    sellerService.exportProducts(sellerId, product -> exported.incrementAndGet());
+    return exported.get();
+  }
+
+  @Benchmark
+  public Object getSellerPage() {
+    return sellerService.getSellerPage(null, 50);
+  }
+
+  @Benchmark
+  public Object getAllSellers() {
+    return sellerService.getAllSellers();
+  }
+}
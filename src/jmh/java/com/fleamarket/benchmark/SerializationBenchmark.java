@@ -0,0 +1,113 @@
+package com.fleamarket.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fleamarket.model.dto.ProductView;
+import com.fleamarket.model.entity.Product;
+import com.fleamarket.model.entity.Seller;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures Jackson serialization of the response payloads for catalogues of different sizes, as
+ * JSON, gzip-compressed JSON, Smile and CBOR. The payload sizes of every format are printed during
+ * setup, so the output shows CPU time and bytes on the wire side by side.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+  @Param({"10", "1000", "100000"})
+  public int catalogueSize;
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final ObjectMapper smileMapper = new ObjectMapper(new SmileFactory());
+  private final ObjectMapper cborMapper = new ObjectMapper(new CBORFactory());
+  private Seller seller;
+  private List<Product> products;
+  private List<ProductView> productViews;
+
+  @Setup
+  public void setup() throws IOException {
+    seller = new Seller();
+    seller.setId(1L);
+    seller.setSellerName("benchmarkSeller");
+    products = new ArrayList<>(catalogueSize);
+    productViews = new ArrayList<>(catalogueSize);
+    for (int i = 0; i < catalogueSize; i++) {
+      Product product = new Product();
+      product.setId((long) i);
+      product.setProductName("product-" + i);
+      product.setSeller(seller);
+      products.add(product);
+      productViews.add(new ProductView((long) i, "product-" + i));
+    }
+    seller.setProducts(products);
+    printPayloadSizes();
+  }
+
+  private void printPayloadSizes() throws IOException {
+    System.out.printf(
+        "%n%d product views: json=%d B, json+gzip=%d B, smile=%d B, cbor=%d B%n",
+        catalogueSize,
+        serializeProductViews().length,
+        serializeProductViewsGzip().length,
+        serializeProductViewsSmile().length,
+        serializeProductViewsCbor().length);
+  }
+
+  @Benchmark
+  public byte[] serializeSeller() throws JsonProcessingException {
+    return objectMapper.writeValueAsBytes(seller);
+  }
+
+  @Benchmark
+  public byte[] serializeProducts() throws JsonProcessingException {
+    return objectMapper.writeValueAsBytes(products);
+  }
+
+  @Benchmark
+  public byte[] serializeProductViews() throws JsonProcessingException {
+    return objectMapper.writeValueAsBytes(productViews);
+  }
+
+  @Benchmark
+  public byte[] serializeProductViewsGzip() throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+      objectMapper.writeValue(gzip, productViews);
+    }
+    return bytes.toByteArray();
+  }
+
+  @Benchmark
+  public byte[] serializeProductViewsSmile() throws JsonProcessingException {
+    return smileMapper.writeValueAsBytes(productViews);
+  }
+
+  @Benchmark
+  public byte[] serializeProductViewsCbor() throws JsonProcessingException {
+    return cborMapper.writeValueAsBytes(productViews);
+  }
+}
@@ -0,0 +1,135 @@
+package com.fleamarket.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Sorted, case-insensitive multiset of names that answers prefix queries. Names are keyed by their
+ * lower-case form, and every spelling of a key is kept with its own usage count, so "Phone" and
+ * "phone" are both suggested and each disappears with its last use. A name shared by many products
+ * costs a single entry.
+ */
+public class NameIndex {
+  // Rough per-entry overhead with compressed oops: skip list node (24), share of index nodes (8),
+  // single-spelling map (24), String header (24) and byte[] header (16). Counts up to 127 are
+  // cached Integers.
+  private static final int ENTRY_OVERHEAD_BYTES = 96;
+  // Each spelling of a key with several: tree map entry (40)
+  private static final int SPELLING_OVERHEAD_BYTES = 40;
+  // A spelling other than the lower-case key is a String of its own: header (24), byte[] (16)
+  private static final int STRING_OVERHEAD_BYTES = 40;
+
+  private final ConcurrentSkipListMap<String, Map<String, Integer>> names =
+      new ConcurrentSkipListMap<>();
+
+  public void add(String name) {
+    names.compute(keyOf(name), (key, spellings) -> adjust(spellings, name, 1));
+  }
+
+  public void remove(String name) {
+    names.computeIfPresent(keyOf(name), (key, spellings) -> adjust(spellings, name, -1));
+  }
+
+  public void rename(String oldName, String newName) {
+    remove(oldName);
+    add(newName);
+  }
+
+  /**
+   * Returns names starting with the prefix, ignoring case, in alphabetical order. Spellings that
+   * differ only in case are returned side by side.
+   *
+   * @param prefix Prefix to look up
+   * @param limit Maximum number of names to return
+   */
+  public List<String> suggest(String prefix, int limit) {
+    String from = keyOf(prefix);
+    List<String> result = new ArrayList<>(limit);
+    for (Map<String, Integer> spellings :
+        names.subMap(from, true, from + Character.MAX_VALUE, false).values()) {
+      for (String name : spellings.keySet()) {
+        if (result.size() == limit) {
+          return result;
+        }
+        result.add(name);
+      }
+    }
+    return result;
+  }
+
+  /** Number of distinct names, counting spellings that differ only in case separately. */
+  public int size() {
+    int size = 0;
+    for (Map<String, Integer> spellings : names.values()) {
+      size += spellings.size();
+    }
+    return size;
+  }
+
+  /** Estimates the heap used by the index. Walks all entries, so it is meant for stats only. */
+  public long estimatedBytes() {
+    long bytes = 0;
+    for (Map.Entry<String, Map<String, Integer>> entry : names.entrySet()) {
+      String key = entry.getKey();
+      bytes += ENTRY_OVERHEAD_BYTES + bytesOf(key);
+      for (String name : entry.getValue().keySet()) {
+        if (entry.getValue().size() > 1) {
+          bytes += SPELLING_OVERHEAD_BYTES;
+        }
+        if (!name.equals(key)) {
+          bytes += STRING_OVERHEAD_BYTES + bytesOf(name);
+        }
+      }
+    }
+    return bytes;
+  }
+
+  private static String keyOf(String name) {
+    return name.toLowerCase(Locale.ROOT);
+  }
+
+  /**
+   * Util function, changes the count of one spelling. Maps are replaced rather than modified, so
+   * readers never see one in the middle of a change.
+   *
+   * @return New spellings, or null once none is left
+   */
+  private static Map<String, Integer> adjust(
+      Map<String, Integer> spellings, String name, int delta) {
+    if (spellings == null) {
+      return delta > 0 ? Map.of(name, delta) : null;
+    }
+    Integer current = spellings.get(name);
+    if (current == null && delta < 0) {
+      return spellings;
+    }
+    int count = (current == null ? 0 : current) + delta;
+    if (current != null && spellings.size() == 1) {
+      return count > 0 ? Map.of(name, count) : null;
+    }
+    TreeMap<String, Integer> changed = new TreeMap<>(spellings);
+    if (count > 0) {
+      changed.put(name, count);
+    } else {
+      changed.remove(name);
+    }
+    return changed.size() == 1 ? Map.copyOf(changed) : changed;
+  }
+
+  private static long bytesOf(String name) {
+    return (long) name.length() * (isLatin1(name) ? 1 : 2);
+  }
+
+  private static boolean isLatin1(String name) {
+    for (int i = 0; i < name.length(); i++) {
+      if (name.charAt(i) > 0xFF) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
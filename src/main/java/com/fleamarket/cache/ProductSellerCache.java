@@ -0,0 +1,161 @@
+package com.fleamarket.cache;
+
+import com.fleamarket.model.dto.SellerSummary;
+import com.fleamarket.util.TransactionHooks;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Caches the seller of each product, and for a short time the IDs of products that do not exist.
+ *
+ * <p>Evicting a seller does not scan the cache. Every entry carries the {@link #stamp()} taken
+ * before its value was read from the database, and evicting a seller records a newer stamp for
+ * it; entries of the seller with an older stamp are then treated as misses. A read that raced
+ * with the eviction therefore cannot cache what it read before the change. Eviction records are
+ * kept for twice the entry TTL, so they outlive every entry they invalidate.
+ */
+@Component
+public class ProductSellerCache implements MeterBinder {
+  private final Cache<Long, Entry> sellers;
+  private final Cache<Long, Long> sellerEvictions;
+  private final Cache<Long, Boolean> unknownProducts;
+  private final AtomicLong clock = new AtomicLong();
+
+  @Autowired
+  public ProductSellerCache(
+      @Value("${fleamarket.cache.product-sellers.max-size:100000}") long maxSize,
+      @Value("${fleamarket.cache.product-sellers.ttl:10m}") Duration ttl,
+      @Value("${fleamarket.cache.unknown-products.max-size:100000}") long unknownMaxSize,
+      @Value("${fleamarket.cache.unknown-products.ttl:30s}") Duration unknownTtl) {
+    this.sellers =
+        Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(ttl).recordStats().build();
+    this.sellerEvictions = Caffeine.newBuilder().expireAfterWrite(ttl.multipliedBy(2)).build();
+    this.unknownProducts =
+        Caffeine.newBuilder()
+            .maximumSize(unknownMaxSize)
+            .expireAfterWrite(unknownTtl)
+            .recordStats()
+            .build();
+  }
+
+  /**
+   * Looks up the seller of a product without touching the database.
+   *
+   * @param productId ID of the product
+   * @return Cached seller, empty on a cache miss
+   */
+  public Optional<SellerSummary> get(Long productId) {
+    Entry entry = sellers.getIfPresent(productId);
+    if (entry == null) {
+      return Optional.empty();
+    }
+    if (isStale(entry)) {
+      sellers.asMap().remove(productId, entry);
+      return Optional.empty();
+    }
+    return Optional.of(entry.seller());
+  }
+
+  /**
+   * Takes the stamp to cache a value with. Must be taken before the value is read from the
+   * database.
+   */
+  public long stamp() {
+    return clock.get();
+  }
+
+  /**
+   * Checks whether the product was recently looked up and did not exist.
+   *
+   * @param productId ID of the product
+   */
+  public boolean isUnknown(Long productId) {
+    return unknownProducts.getIfPresent(productId) != null;
+  }
+
+  /**
+   * Stores the seller of a product, unless the seller was evicted after the stamp was taken.
+   *
+   * @param productId ID of the product
+   * @param seller Seller read from the database
+   * @param stamp Stamp taken before the seller was read
+   */
+  public void put(Long productId, SellerSummary seller, long stamp) {
+    Entry entry = new Entry(seller, stamp);
+    if (!isStale(entry)) {
+      sellers.put(productId, entry);
+    }
+  }
+
+  public void putUnknown(Long productId) {
+    unknownProducts.put(productId, Boolean.TRUE);
+  }
+
+  /**
+   * Removes the given products, including negative entries, right away and again after the current
+   * transaction commits.
+   *
+   * @param productIds IDs of the products to evict
+   */
+  public void evictProducts(Collection<Long> productIds) {
+    invalidateProducts(productIds);
+    TransactionHooks.afterCommit(() -> invalidateProducts(productIds));
+  }
+
+  public void evictProduct(Long productId) {
+    evictProducts(List.of(productId));
+  }
+
+  /**
+   * Invalidates every product entry that points to the given seller, right away and again after
+   * the current transaction commits. Costs the same however many products the seller has.
+   *
+   * @param sellerId ID of the seller to evict
+   */
+  public void evictSeller(Long sellerId) {
+    invalidateSeller(sellerId);
+    TransactionHooks.afterCommit(() -> invalidateSeller(sellerId));
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    CaffeineCacheMetrics.monitor(registry, sellers, "productSellers");
+    CaffeineCacheMetrics.monitor(registry, unknownProducts, "unknownProducts");
+  }
+
+  public CacheStats stats() {
+    return sellers.stats();
+  }
+
+  public CacheStats unknownStats() {
+    return unknownProducts.stats();
+  }
+
+  private void invalidateProducts(Collection<Long> productIds) {
+    sellers.invalidateAll(productIds);
+    unknownProducts.invalidateAll(productIds);
+  }
+
+  private void invalidateSeller(Long sellerId) {
+    sellerEvictions.asMap().merge(sellerId, clock.incrementAndGet(), Math::max);
+  }
+
+  private boolean isStale(Entry entry) {
+    Long evicted = sellerEvictions.getIfPresent(entry.seller().getId());
+    return evicted != null && entry.stamp() < evicted;
+  }
+
+  private record Entry(SellerSummary seller, long stamp) {}
+}
@@ -0,0 +1,67 @@
+package com.fleamarket.cache;
+
+import com.fleamarket.model.dto.SellerSummary;
+import com.fleamarket.util.TransactionHooks;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.Optional;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+public class SellerCache implements MeterBinder {
+  private final Cache<String, SellerSummary> cache;
+
+  @Autowired
+  public SellerCache(
+      @Value("${fleamarket.cache.sellers.max-size:10000}") long maxSize,
+      @Value("${fleamarket.cache.sellers.ttl:10m}") Duration ttl) {
+    this.cache =
+        Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(ttl).recordStats().build();
+  }
+
+  /**
+   * Looks up a seller by name without touching the database.
+   *
+   * @param sellerName Username of the seller
+   * @return Cached seller, empty on a cache miss
+   */
+  public Optional<SellerSummary> get(String sellerName) {
+    return Optional.ofNullable(cache.getIfPresent(sellerName));
+  }
+
+  /**
+   * Stores a seller loaded from the database.
+   *
+   * @param seller Seller to cache under its name
+   */
+  public void put(SellerSummary seller) {
+    cache.put(seller.getSellerName(), seller);
+  }
+
+  /**
+   * Removes a seller right away and once more after the current transaction commits, so a read
+   * that races with the transaction cannot leave a stale entry behind.
+   *
+   * @param sellerName Username of the seller to evict
+   */
+  public void evict(String sellerName) {
+    cache.invalidate(sellerName);
+    TransactionHooks.afterCommit(() -> cache.invalidate(sellerName));
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    CaffeineCacheMetrics.monitor(registry, cache, "sellers");
+  }
+
+  public CacheStats stats() {
+    return cache.stats();
+  }
+}
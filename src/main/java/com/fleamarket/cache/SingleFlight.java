@@ -0,0 +1,90 @@
+package com.fleamarket.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Collapses concurrent loads of the same key into one. The first caller runs the loader, callers
+ * that arrive while it is running wait for its result or exception instead of running their own.
+ * Nothing is kept once the load finishes, so a result is never older than the load that was
+ * running when the caller arrived.
+ *
+ * @param <K> Type of the keys
+ * @param <V> Type of the loaded values
+ */
+public class SingleFlight<K, V> {
+  private final String name;
+  private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+  private final LongAdder loads = new LongAdder();
+  private final LongAdder collapsed = new LongAdder();
+
+  /** @param name Name of the flight, used as the metric tag */
+  public SingleFlight(String name) {
+    this.name = name;
+  }
+
+  /**
+   * Loads the value for a key, or joins the load that is already running for it.
+   *
+   * @param key Key to load
+   * @param loader Loader to run when no load of the key is running
+   * @return Value returned by the loader
+   */
+  public V load(K key, Supplier<V> loader) {
+    CompletableFuture<V> flight = new CompletableFuture<>();
+    CompletableFuture<V> running = inFlight.putIfAbsent(key, flight);
+    if (running != null) {
+      collapsed.increment();
+      return join(running);
+    }
+    loads.increment();
+    try {
+      V value = loader.get();
+      flight.complete(value);
+      return value;
+    } catch (RuntimeException | Error ex) {
+      flight.completeExceptionally(ex);
+      throw ex;
+    } finally {
+      inFlight.remove(key, flight);
+    }
+  }
+
+  public long getLoads() {
+    return loads.sum();
+  }
+
+  public long getCollapsed() {
+    return collapsed.sum();
+  }
+
+  public void bindTo(MeterRegistry registry) {
+    FunctionCounter.builder("fleamarket.singleflight.loads", loads, LongAdder::sum)
+        .description("Loads that ran against the database")
+        .tag("name", name)
+        .register(registry);
+    FunctionCounter.builder("fleamarket.singleflight.collapsed", collapsed, LongAdder::sum)
+        .description("Loads that joined a load of the same key already in flight")
+        .tag("name", name)
+        .register(registry);
+  }
+
+  private static <V> V join(CompletableFuture<V> flight) {
+    try {
+      return flight.join();
+    } catch (CompletionException ex) {
+      if (ex.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      if (ex.getCause() instanceof Error cause) {
+        throw cause;
+      }
+      throw ex;
+    }
+  }
+}
@@ -0,0 +1,63 @@
+package com.fleamarket.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fleamarket.filter.ConcurrencyLimitFilter;
+import com.fleamarket.filter.DatabasePermits;
+import com.fleamarket.filter.LoadShedder;
+import com.fleamarket.filter.RateLimitFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+@Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class FilterConfig {
+
+  @Bean
+  public FilterRegistrationBean<RateLimitFilter> rateLimitFilter(
+      RateLimitProperties properties,
+      LoadShedder loadShedder,
+      ObjectMapper objectMapper,
+      MeterRegistry meterRegistry) {
+    FilterRegistrationBean<RateLimitFilter> registration =
+        new FilterRegistrationBean<>(
+            new RateLimitFilter(properties, loadShedder, objectMapper, meterRegistry));
+    registration.addUrlPatterns(
+        "/sellers/*", "/products/*", "/changes", "/changes/*", "/suggest", "/suggest/*");
+    registration.setOrder(Ordered.LOWEST_PRECEDENCE - 20);
+    return registration;
+  }
+
+  @Bean
+  public DatabasePermits databasePermits(
+      @Value("${fleamarket.db.max-concurrency:10}") int maxConcurrency,
+      @Value("${fleamarket.db.acquire-timeout:2s}") Duration acquireTimeout,
+      MeterRegistry meterRegistry) {
+    return new DatabasePermits(maxConcurrency, acquireTimeout, meterRegistry);
+  }
+
+  @Bean
+  public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(
+      DatabasePermits databasePermits, ObjectMapper objectMapper) {
+    // The coalesced reads take a permit inside CoalescingReadService, only for the load they run
+    FilterRegistrationBean<ConcurrencyLimitFilter> registration =
+        new FilterRegistrationBean<>(
+            new ConcurrencyLimitFilter(
+                databasePermits,
+                List.of(
+                    "/sellers/*/products/stream",
+                    "/changes/stream",
+                    "/sellers/getAllSellerPtroducts",
+                    "/products/getProcuctSeller"),
+                objectMapper));
+    registration.addUrlPatterns("/sellers/*", "/products/*", "/changes");
+    registration.setOrder(Ordered.LOWEST_PRECEDENCE - 10);
+    return registration;
+  }
+}
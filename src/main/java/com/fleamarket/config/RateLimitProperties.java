@@ -0,0 +1,79 @@
+package com.fleamarket.config;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/** Settings of the per-client rate limit and of load shedding, see {@code RateLimitFilter}. */
+@Data
+@ConfigurationProperties("fleamarket.rate-limit")
+public class RateLimitProperties {
+  private boolean enabled = true;
+
+  /** Tokens every client gets per second. */
+  private double ratePerSecond = 20;
+
+  /** Tokens a client can save up for a burst. */
+  private long capacity = 100;
+
+  /** Cost of requests to endpoints that are not listed in {@link #endpoints}. */
+  private long defaultCost = 1;
+
+  /** Clients whose buckets are kept; the least recently seen are dropped first. */
+  private long maxClients = 100_000;
+
+  /** Buckets of clients that sent nothing for this long are dropped. */
+  private Duration clientIdleTimeout = Duration.ofMinutes(10);
+
+  /**
+   * Request header that carries the client address, such as {@code CF-Connecting-IP}. Only set this
+   * when the application can be reached through the proxy alone, since clients can send any value.
+   * If not set, or if the header is missing, the remote address identifies the client.
+   */
+  private String clientHeader;
+
+  /** Endpoints with their own cost or limit, matched in order against the request path. */
+  private Map<String, Endpoint> endpoints = new LinkedHashMap<>();
+
+  private Shedding shedding = new Shedding();
+
+  @Data
+  public static class Endpoint {
+    /** Ant-style pattern of the request path. */
+    private String path;
+
+    /** Tokens a request takes from the client's bucket. */
+    private long cost = 1;
+
+    /** Requests per second a client may send to this endpoint alone, unlimited if not set. */
+    private Double ratePerSecond;
+
+    /** Burst of requests a client may send to this endpoint, the rate if not set. */
+    private Long capacity;
+
+    /**
+     * Whether requests to this endpoint count towards the latency that triggers shedding. Switch
+     * it off for endpoints whose requests are long by design, such as bulk writes and exports.
+     */
+    private boolean sheddingLatency = true;
+  }
+
+  @Data
+  public static class Shedding {
+    private boolean enabled = true;
+
+    /** Requests cheaper than this are never shed. */
+    private long minCost = 5;
+
+    /** Shed while the p99 time to get a pooled connection is above this. */
+    private Duration maxPoolWait = Duration.ofMillis(500);
+
+    /** Shed while the p99 latency of rate-limited requests is above this. */
+    private Duration maxLatency = Duration.ofSeconds(2);
+
+    /** How often the thresholds are checked, in milliseconds. */
+    private long checkIntervalMs = 1000;
+  }
+}
@@ -0,0 +1,66 @@
+package com.fleamarket.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+/**
+ * Sends read-only transactions to a replica when {@code fleamarket.datasource.replica.url} is set.
+ * The data source handed to JPA is a lazy proxy: it only picks a pool once the first statement
+ * runs, by which time the transaction manager has marked the connection read-only or not.
+ */
+@Configuration
+@ConditionalOnProperty("fleamarket.datasource.replica.url")
+@Slf4j
+public class ReplicaDataSourceConfig {
+
+  @Bean
+  @ConfigurationProperties("spring.datasource.hikari")
+  public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+    HikariDataSource dataSource =
+        properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    dataSource.setPoolName("primary");
+    return dataSource;
+  }
+
+  @Bean
+  @ConfigurationProperties("fleamarket.datasource.replica.hikari")
+  public HikariDataSource replicaDataSource(
+      @Value("${fleamarket.datasource.replica.url}") String url,
+      @Value("${fleamarket.datasource.replica.username:${spring.datasource.username:}}")
+          String username,
+      @Value("${fleamarket.datasource.replica.password:${spring.datasource.password:}}")
+          String password) {
+    HikariDataSource dataSource =
+        DataSourceBuilder.create()
+            .type(HikariDataSource.class)
+            .url(url)
+            .username(username)
+            .password(password)
+            .build();
+    dataSource.setPoolName("replica");
+    dataSource.setReadOnly(true);
+    log.info("Routing read-only transactions to replica {}", url);
+    return dataSource;
+  }
+
+  @Bean
+  @Primary
+  public DataSource dataSource(
+      @Qualifier("primaryDataSource") DataSource primaryDataSource,
+      @Qualifier("replicaDataSource") DataSource replicaDataSource) {
+    LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+    dataSource.setReadOnlyDataSource(replicaDataSource);
+    return dataSource;
+  }
+}
@@ -0,0 +1,33 @@
+package com.fleamarket.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Binary alternatives to JSON, returned only to clients that ask for them with {@code Accept:
+ * application/x-jackson-smile} or {@code Accept: application/cbor}. The converters replace the
+ * default ones in place, after the JSON converter, so JSON stays the default; they are built from
+ * the application's Jackson settings so every format serializes the same fields.
+ */
+@Configuration
+public class SerializationConfig {
+
+  @Bean
+  public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(
+      Jackson2ObjectMapperBuilder builder) {
+    return new MappingJackson2SmileHttpMessageConverter(
+        builder.createXmlMapper(false).factory(new SmileFactory()).build());
+  }
+
+  @Bean
+  public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(
+      Jackson2ObjectMapperBuilder builder) {
+    return new MappingJackson2CborHttpMessageConverter(
+        builder.createXmlMapper(false).factory(new CBORFactory()).build());
+  }
+}
@@ -0,0 +1,47 @@
+package com.fleamarket.controller;
+
+import com.fleamarket.model.dto.ChangeFeed;
+import com.fleamarket.service.OutboxService;
+import com.fleamarket.stream.ChangeBroadcaster;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/changes")
+public class ChangeController {
+  private OutboxService outboxService;
+  private ChangeBroadcaster changeBroadcaster;
+
+  @Autowired
+  public ChangeController(OutboxService outboxService, ChangeBroadcaster changeBroadcaster) {
+    this.outboxService = outboxService;
+    this.changeBroadcaster = changeBroadcaster;
+  }
+
+  /**
+   * Endpoint to retrieve seller and product changes made after a cursor.
+   *
+   * @param since Cursor returned with the previous changes, omitted to start from the beginning
+   * @param limit Maximum number of changes to return
+   */
+  @GetMapping
+  public ResponseEntity<ChangeFeed> getChanges(
+      @RequestParam(defaultValue = "0") long since,
+      @RequestParam(required = false) Integer limit) {
+    return ResponseEntity.ok().body(outboxService.getChanges(since, limit));
+  }
+
+  /**
+   * Endpoint to receive all seller and product changes as Server-Sent Events while they are
+   * committed. Event IDs are the cursors used by {@code /changes}.
+   *
+   * @param lastEventId ID of the last event received before reconnecting, sent by EventSource
+   */
+  @GetMapping("/stream")
+  public SseEmitter streamChanges(
+      @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+    return changeBroadcaster.subscribe(lastEventId);
+  }
+}
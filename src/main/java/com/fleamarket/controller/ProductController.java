@@ -1,28 +1,57 @@
 package com.fleamarket.controller;
 
-import com.fleamarket.model.entity.Seller;
+import com.fleamarket.model.dto.ProductSearchPage;
+import com.fleamarket.model.dto.SellerSummary;
+import com.fleamarket.service.CoalescingReadService;
 import com.fleamarket.service.ProductService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @RequestMapping("/products")
 public class ProductController {
   private ProductService productService;
+  private CoalescingReadService coalescingReadService;
 
   @Autowired
-  public ProductController(ProductService productService) {
+  public ProductController(
+      ProductService productService, CoalescingReadService coalescingReadService) {
     this.productService = productService;
+    this.coalescingReadService = coalescingReadService;
   }
 
   /**
-   * Endpoint to retrieve the seller of a specific product by its ID.
+   * Endpoint to retrieve the seller of a specific product by its ID. The seller comes from the
+   * product cache, so the ETag is built from the response itself and 304 Not Modified only saves
+   * the body.
    *
    * @param productId ID of the product to retrieve the seller for
    */
   @GetMapping("/getProcuctSeller")
-  public ResponseEntity<Seller> getProductSeller(@RequestParam Long productId) {
-    return ResponseEntity.ok().body(productService.getSellerByProductId(productId));
+  public ResponseEntity<SellerSummary> getProductSeller(
+      @RequestParam Long productId, WebRequest request) {
+    SellerSummary seller = coalescingReadService.getSellerByProductId(productId);
+    String etag = productService.getSellerEtag(productId, seller);
+    if (request.checkNotModified(etag)) {
+      return null;
+    }
+    return ResponseEntity.ok().eTag(etag).body(seller);
+  }
+
+  /**
+   * Endpoint to search products of all sellers by name.
+   *
+   * @param query Text to search for, matched as a prefix and by similarity
+   * @param token Continuation token from the previous page, omitted for the first page
+   * @param limit Maximum number of hits per page
+   */
+  @GetMapping("/search")
+  public ResponseEntity<ProductSearchPage> searchProducts(
+      @RequestParam String query,
+      @RequestParam(required = false) String token,
+      @RequestParam(required = false) Integer limit) {
+    return ResponseEntity.ok().body(productService.searchProducts(query, token, limit));
   }
 }
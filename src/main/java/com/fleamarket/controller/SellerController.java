@@ -1,22 +1,53 @@
 package com.fleamarket.controller;
 
-import com.fleamarket.model.entity.Product;
-import com.fleamarket.model.entity.Seller;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fleamarket.model.dto.BulkAddResult;
+import com.fleamarket.model.dto.ProductView;
+import com.fleamarket.model.dto.SellerDeletionStatus;
+import com.fleamarket.model.dto.SellerPage;
+import com.fleamarket.model.dto.SellerProductCount;
+import com.fleamarket.model.dto.SellerSummary;
+import com.fleamarket.model.dto.Tagged;
+import com.fleamarket.service.CoalescingReadService;
+import com.fleamarket.service.SellerDeletionService;
 import com.fleamarket.service.SellerService;
+import com.fleamarket.stream.ChangeBroadcaster;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
 import java.util.List;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/sellers")
 public class SellerController {
   private SellerService sellerService;
+  private ObjectMapper objectMapper;
+  private ChangeBroadcaster changeBroadcaster;
+  private CoalescingReadService coalescingReadService;
+  private SellerDeletionService sellerDeletionService;
 
   @Autowired
-  public SellerController(SellerService sellerService) {
+  public SellerController(
+      SellerService sellerService,
+      ObjectMapper objectMapper,
+      ChangeBroadcaster changeBroadcaster,
+      CoalescingReadService coalescingReadService,
+      SellerDeletionService sellerDeletionService) {
     this.sellerService = sellerService;
+    this.objectMapper = objectMapper;
+    this.changeBroadcaster = changeBroadcaster;
+    this.coalescingReadService = coalescingReadService;
+    this.sellerDeletionService = sellerDeletionService;
   }
 
   /**
@@ -30,31 +61,120 @@ public class SellerController {
     return ResponseEntity.ok("Seller was successfully created");
   }
 
-  /** Endpoint to retrieve all sellers. */
+  /**
+   * Endpoint to retrieve all sellers. Disabled unless unbounded listing is enabled. Answers 304
+   * Not Modified without loading the sellers when the client's ETag is still current.
+   */
   @GetMapping("/getAllSellers")
-  public ResponseEntity<List<Seller>> getAllSellers() {
-    return new ResponseEntity<>(sellerService.getAllSellers(), HttpStatus.OK);
+  public ResponseEntity<List<SellerSummary>> getAllSellers(WebRequest request) {
+    String etag = sellerService.getAllSellersEtag();
+    if (request.checkNotModified(etag)) {
+      return null;
+    }
+    List<SellerSummary> sellers = sellerService.getAllSellers();
+    return ResponseEntity.ok().eTag(etag).body(sellers);
   }
 
   /**
-   * Endpoint to retrieve all products of a specific seller.
+   * Endpoint to retrieve sellers page by page. Every page carries the ETag of the seller listing,
+   * so a page is answered with 304 Not Modified until a seller is created, renamed or deleted.
+   *
+   * @param token Continuation token from the previous page, omitted for the first page
+   * @param size Number of sellers per page
+   */
+  @GetMapping("/getSellersPage")
+  public ResponseEntity<SellerPage> getSellersPage(
+      @RequestParam(required = false) String token,
+      @RequestParam(required = false) Integer size,
+      WebRequest request) {
+    String etag = sellerService.getSellersEtag();
+    if (request.checkNotModified(etag)) {
+      return null;
+    }
+    return ResponseEntity.ok().eTag(etag).body(sellerService.getSellerPage(token, size));
+  }
+
+  /**
+   * Endpoint to retrieve the sellers with the most products.
+   *
+   * @param limit Number of sellers to return
+   */
+  @GetMapping("/stats")
+  public ResponseEntity<List<SellerProductCount>> getSellerStats(
+      @RequestParam(required = false) Integer limit) {
+    return ResponseEntity.ok().body(sellerService.getTopSellers(limit));
+  }
+
+  /**
+   * Endpoint to retrieve all products of a specific seller. Answers 304 Not Modified without
+   * loading the products when the client's ETag is still current.
    *
    * @param seller Name of the seller to retrieve products for
    */
   @GetMapping("/getAllSellerPtroducts")
-  public ResponseEntity<List<Product>> getAllSellerProducts(@RequestParam String seller) {
-    return new ResponseEntity<>(sellerService.getAllProducts(seller), HttpStatus.OK);
+  public ResponseEntity<List<ProductView>> getAllSellerProducts(
+      @RequestParam String seller, WebRequest request) {
+    String etag = coalescingReadService.getProductsEtag(seller);
+    if (request.checkNotModified(etag)) {
+      return null;
+    }
+    Tagged<List<ProductView>> products = coalescingReadService.getAllProducts(seller);
+    return ResponseEntity.ok().eTag(products.getEtag()).body(products.getValue());
+  }
+
+  /**
+   * Endpoint to export all products of a specific seller as newline-delimited JSON. Products are
+   * written to the response one by one while they are read from the database.
+   *
+   * @param seller Name of the seller to export products for
+   */
+  @GetMapping("/exportSellerProducts")
+  public ResponseEntity<StreamingResponseBody> exportSellerProducts(@RequestParam String seller) {
+    Long sellerId = sellerService.getSellerId(seller);
+    StreamingResponseBody body =
+        out -> sellerService.exportProducts(sellerId, product -> writeLine(out, product));
+    return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
   }
 
   /**
-   * Endpoint to delete a seller.
+   * Endpoint to receive product additions, renames and deletions of a seller as Server-Sent Events
+   * while they are committed. The stream ends when the seller is deleted.
+   *
+   * @param seller Name of the seller to follow
+   * @param lastEventId ID of the last event received before reconnecting, sent by EventSource
+   */
+  @GetMapping("/{seller}/products/stream")
+  public SseEmitter streamSellerProducts(
+      @PathVariable String seller,
+      @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+    return changeBroadcaster.subscribe(sellerService.getSellerId(seller), lastEventId);
+  }
+
+  /**
+   * Endpoint to delete a seller. The seller disappears right away, its products are deleted in the
+   * background; the response points to the status of the deletion job.
    *
    * @param seller Name of the seller to delete
    */
   @DeleteMapping("/deleteSeller")
-  public ResponseEntity<String> deleteSeller(@RequestParam String seller) {
-    sellerService.deleteSeller(seller);
-    return ResponseEntity.ok("Seller was successfully deleted");
+  public ResponseEntity<SellerDeletionStatus> deleteSeller(@RequestParam String seller) {
+    SellerDeletionStatus job = sellerService.deleteSeller(seller);
+    URI location =
+        ServletUriComponentsBuilder.fromCurrentContextPath()
+            .path("/sellers/deletions/{jobId}")
+            .buildAndExpand(job.getId())
+            .toUri();
+    return ResponseEntity.accepted().location(location).body(job);
+  }
+
+  /**
+   * Endpoint to follow the progress of a seller deletion.
+   *
+   * @param jobId ID of the deletion job returned by deleteSeller
+   */
+  @GetMapping("/deletions/{jobId}")
+  public ResponseEntity<SellerDeletionStatus> getDeletionStatus(@PathVariable Long jobId) {
+    return ResponseEntity.ok().body(sellerDeletionService.getStatus(jobId));
   }
 
   /**
@@ -83,6 +203,31 @@ public class SellerController {
     return ResponseEntity.ok("Product was successfully added to seller");
   }
 
+  /**
+   * Endpoint to add many products to a seller from a JSON array of product names.
+   *
+   * @param seller Name of the seller to add the products to
+   * @param products Names of the products to add
+   */
+  @PostMapping(value = "/addProducts", consumes = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<BulkAddResult> addProducts(
+      @RequestParam String seller, @RequestBody List<String> products) {
+    return new ResponseEntity<>(sellerService.addProductsToSeller(products, seller), HttpStatus.OK);
+  }
+
+  /**
+   * Endpoint to add many products to a seller from a CSV body with one product name per line.
+   *
+   * @param seller Name of the seller to add the products to
+   * @param products CSV body, blank lines are ignored and quoted names are unquoted
+   */
+  @PostMapping(value = "/addProducts", consumes = "text/csv")
+  public ResponseEntity<BulkAddResult> addProductsCsv(
+      @RequestParam String seller, @RequestBody String products) {
+    return new ResponseEntity<>(
+        sellerService.addProductsToSeller(parseCsv(products), seller), HttpStatus.OK);
+  }
+
   /**
    * Endpoint to delete a product from a seller.
    *
@@ -111,4 +256,27 @@ public class SellerController {
     sellerService.changeProduct(oldProductName, newProductName, seller);
     return ResponseEntity.ok("Product was successfully updated");
   }
+
+  private void writeLine(OutputStream out, ProductView product) {
+    try {
+      out.write(objectMapper.writeValueAsBytes(product));
+      out.write('\n');
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+
+  private static List<String> parseCsv(String body) {
+    return body.lines()
+        .filter(line -> !line.isBlank())
+        .map(
+            line -> {
+              String value = line.strip();
+              if (value.length() > 1 && value.startsWith("\"") && value.endsWith("\"")) {
+                return value.substring(1, value.length() - 1).replace("\"\"", "\"");
+              }
+              return value;
+            })
+        .toList();
+  }
 }
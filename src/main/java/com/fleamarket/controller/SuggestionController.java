@@ -0,0 +1,37 @@
+package com.fleamarket.controller;
+
+import com.fleamarket.model.dto.SuggestionStats;
+import com.fleamarket.model.dto.Suggestions;
+import com.fleamarket.service.SuggestionService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/suggest")
+public class SuggestionController {
+  private SuggestionService suggestionService;
+
+  @Autowired
+  public SuggestionController(SuggestionService suggestionService) {
+    this.suggestionService = suggestionService;
+  }
+
+  /**
+   * Endpoint to suggest product and seller names for a typed prefix.
+   *
+   * @param prefix Prefix typed by the user
+   * @param limit Maximum number of names of each kind
+   */
+  @GetMapping
+  public ResponseEntity<Suggestions> suggest(
+      @RequestParam String prefix, @RequestParam(required = false) Integer limit) {
+    return ResponseEntity.ok().body(suggestionService.suggest(prefix, limit));
+  }
+
+  /** Endpoint to retrieve the size and estimated memory footprint of the suggestion index. */
+  @GetMapping("/stats")
+  public ResponseEntity<SuggestionStats> getStats() {
+    return ResponseEntity.ok().body(suggestionService.getStats());
+  }
+}
@@ -0,0 +1,27 @@
+package com.fleamarket.dao;
+
+import com.fleamarket.model.entity.CatalogStamp;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CatalogStampRepository extends JpaRepository<CatalogStamp, String> {
+  @Query("select c.version from CatalogStamp c where c.scope = :scope")
+  Optional<Long> findVersion(@Param("scope") String scope);
+
+  @Modifying
+  @Query("update CatalogStamp c set c.version = c.version + 1 where c.scope = :scope")
+  int incrementVersion(@Param("scope") String scope);
+
+  /**
+   * Adds to the version of a scope. The row stays locked until the transaction ends, so callers
+   * that reserve ranges this way commit in the order of their ranges.
+   */
+  @Modifying
+  @Query("update CatalogStamp c set c.version = c.version + :delta where c.scope = :scope")
+  int addToVersion(@Param("scope") String scope, @Param("delta") long delta);
+}
@@ -0,0 +1,60 @@
+package com.fleamarket.dao;
+
+import com.fleamarket.model.dto.ChangeEvent;
+import com.fleamarket.model.entity.OutboxEvent;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import org.hibernate.jpa.SpecHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+  @Query(
+      "select new com.fleamarket.model.dto.ChangeEvent(e.id, e.position, e.type, e.sellerId,"
+          + " e.sellerName, e.productId, e.productName, e.previousName, e.occurredAt)"
+          + " from OutboxEvent e where e.position > :afterPosition order by e.position")
+  List<ChangeEvent> findChanges(@Param("afterPosition") long afterPosition, Pageable pageable);
+
+  @Query("select coalesce(max(e.position), 0) from OutboxEvent e")
+  long findLastPosition();
+
+  /**
+   * Locks the oldest committed events that have no feed position yet. Rows locked by another
+   * publisher are skipped (a lock timeout of -2 is Hibernate's SKIP LOCKED), so several
+   * application instances can work on the outbox side by side.
+   */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @QueryHints(@QueryHint(name = SpecHints.HINT_SPEC_LOCK_TIMEOUT, value = "-2"))
+  @Query("select e from OutboxEvent e where e.position is null order by e.id")
+  List<OutboxEvent> lockUnpositioned(Pageable pageable);
+
+  /** Locks the unpublished events with the lowest feed positions, skipping locked rows. */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @QueryHints(@QueryHint(name = SpecHints.HINT_SPEC_LOCK_TIMEOUT, value = "-2"))
+  @Query(
+      "select e from OutboxEvent e where e.position is not null and e.publishedAt is null"
+          + " order by e.position")
+  List<OutboxEvent> lockUnpublished(Pageable pageable);
+
+  @Modifying
+  @Query("update OutboxEvent e set e.publishedAt = :publishedAt where e.id in :ids")
+  int markPublished(@Param("ids") Collection<Long> ids, @Param("publishedAt") Instant publishedAt);
+
+  /** IDs of events published before the cutoff, lowest feed positions first. */
+  @Query("select e.id from OutboxEvent e where e.publishedAt < :cutoff order by e.position")
+  List<Long> findPublishedBefore(@Param("cutoff") Instant cutoff, Pageable pageable);
+
+  @Modifying
+  @Query("delete from OutboxEvent e where e.id in :ids")
+  int deleteByIds(@Param("ids") Collection<Long> ids);
+}
@@ -1,11 +1,135 @@
 package com.fleamarket.dao;
 
+import com.fleamarket.model.dto.ProductSearchHit;
+import com.fleamarket.model.dto.ProductView;
+import com.fleamarket.model.dto.SellerProductName;
+import com.fleamarket.model.dto.SellerSummary;
 import com.fleamarket.model.entity.Product;
+import jakarta.persistence.QueryHint;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
-  Optional<Product> findProductById(Long id);
+  @Query(
+      "select new com.fleamarket.model.dto.SellerSummary(s.id, s.sellerName)"
+          + " from Product p join p.seller s where p.id = :productId and s.deletedAt is null")
+  Optional<SellerSummary> findSellerSummaryByProductId(@Param("productId") Long productId);
+
+  boolean existsByProductNameAndSellerId(String productName, Long sellerId);
+
+  @Query("select p.id from Product p where p.seller.id = :sellerId and p.productName = :name")
+  Optional<Long> findProductId(@Param("sellerId") Long sellerId, @Param("name") String name);
+
+  @Modifying
+  @Query(
+      "update Product p set p.productName = :newName"
+          + " where p.seller.id = :sellerId and p.productName = :oldName and p.deletedAt is null")
+  int renameProduct(
+      @Param("sellerId") Long sellerId,
+      @Param("oldName") String oldName,
+      @Param("newName") String newName);
+
+  @Modifying
+  @Query(
+      "update Product p set p.deletedAt = :deletedAt"
+          + " where p.id = :id and p.deletedAt is null")
+  int softDeleteProduct(@Param("id") Long id, @Param("deletedAt") Instant deletedAt);
+
+  /** Removes product rows for good, whether they are soft-deleted or not. */
+  @Modifying
+  @Query(nativeQuery = true, value = "delete from products where id in (:ids)")
+  int purgeProductsByIds(@Param("ids") Collection<Long> ids);
+
+  /**
+   * IDs of products deleted before the cutoff, oldest first. Products of deleted sellers are left
+   * to the seller's deletion job, which removes them.
+   */
+  @Query(
+      nativeQuery = true,
+      value =
+          "select p.id from products p join seller s on s.id = p.seller_id"
+              + " where p.deleted_at < :cutoff and s.deleted_at is null"
+              + " order by p.deleted_at limit :limit")
+  List<Long> findPurgeableProductIds(@Param("cutoff") Instant cutoff, @Param("limit") int limit);
+
+  /** Number of live products among the given IDs, the soft-deleted ones are not counted. */
+  @Query("select count(p) from Product p where p.id in :ids")
+  long countProductsByIds(@Param("ids") Collection<Long> ids);
+
+  /** IDs of a seller's products, soft-deleted ones included, for the seller's deletion job. */
+  @Query(
+      nativeQuery = true,
+      value = "select id from products where seller_id = :sellerId order by id limit :limit")
+  List<Long> findProductIdChunk(@Param("sellerId") Long sellerId, @Param("limit") int limit);
+
+  @Query("select p.productName from Product p where p.id in :ids")
+  List<String> findProductNamesByIds(@Param("ids") Collection<Long> ids);
+
+  @Query(
+      "select p.productName from Product p"
+          + " where p.seller.id = :sellerId and p.productName in :names")
+  List<String> findExistingProductNames(
+      @Param("sellerId") Long sellerId, @Param("names") Collection<String> names);
+
+  @Query(
+      "select new com.fleamarket.model.dto.ProductView(p.id, p.productName) from Product p"
+          + " where p.seller.id = :sellerId order by p.id")
+  List<ProductView> findProductViewsBySellerId(@Param("sellerId") Long sellerId);
+
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+  @Query(
+      "select new com.fleamarket.model.dto.ProductView(p.id, p.productName) from Product p"
+          + " where p.seller.id = :sellerId order by p.id")
+  Stream<ProductView> streamProductsBySellerId(@Param("sellerId") Long sellerId);
+
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+  @Query(
+      "select new com.fleamarket.model.dto.SellerProductName(p.seller.id, p.productName)"
+          + " from Product p where p.seller.deletedAt is null")
+  Stream<SellerProductName> streamAllProductNames();
+
+  /**
+   * Fuzzy and prefix search over product names, ranked by trigram similarity. Only the {@code
+   * candidates} nearest matches are scored and sorted, read in distance order from the {@code
+   * pg_trgm} GiST index on {@code products.product}, so a common query does not rank every
+   * matching row. Pages are keyset-based on (score, id) within that candidate set.
+   */
+  @Query(
+      nativeQuery = true,
+      value =
+          "select * from ("
+              + " select c.id as \"id\", c.product as \"productName\","
+              + " c.seller as \"sellerName\","
+              + " cast(similarity(c.product, :query) as real) as \"score\""
+              + " from ("
+              + " select p.id, p.product, s.seller"
+              + " from products p join seller s on s.id = p.seller_id"
+              + " where (p.product % :query or p.product ilike :prefix)"
+              + " and p.deleted_at is null and s.deleted_at is null"
+              + " order by p.product <-> :query, p.id"
+              + " limit :candidates"
+              + ") c"
+              + ") hits"
+              + " where hits.\"score\" < cast(:afterScore as real)"
+              + " or (hits.\"score\" = cast(:afterScore as real) and hits.\"id\" > :afterId)"
+              + " order by hits.\"score\" desc, hits.\"id\""
+              + " limit :limit")
+  List<ProductSearchHit> searchProducts(
+      @Param("query") String query,
+      @Param("prefix") String prefix,
+      @Param("afterScore") Float afterScore,
+      @Param("afterId") Long afterId,
+      @Param("candidates") int candidates,
+      @Param("limit") int limit);
 }
@@ -0,0 +1,38 @@
+package com.fleamarket.dao;
+
+import com.fleamarket.model.dto.SellerDeletionStatus;
+import com.fleamarket.model.entity.SellerDeletionJob;
+import java.time.Instant;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface SellerDeletionJobRepository extends JpaRepository<SellerDeletionJob, Long> {
+  @Query("select j.id from SellerDeletionJob j where j.status <> :status order by j.id")
+  List<Long> findJobIdsByStatusNot(@Param("status") SellerDeletionStatus.Status status);
+
+  @Query("select j.id from SellerDeletionJob j where j.status = :status order by j.id")
+  List<Long> findJobIdsByStatus(@Param("status") SellerDeletionStatus.Status status);
+
+  @Modifying
+  @Query(
+      "update SellerDeletionJob j set j.deletedProducts = j.deletedProducts + :count,"
+          + " j.updatedAt = :now where j.id = :id")
+  int addDeletedProducts(
+      @Param("id") Long id, @Param("count") long count, @Param("now") Instant now);
+
+  @Modifying
+  @Query(
+      "update SellerDeletionJob j set j.status = :status, j.error = :error, j.updatedAt = :now,"
+          + " j.completedAt = :completedAt where j.id = :id")
+  int updateStatus(
+      @Param("id") Long id,
+      @Param("status") SellerDeletionStatus.Status status,
+      @Param("error") String error,
+      @Param("completedAt") Instant completedAt,
+      @Param("now") Instant now);
+}
@@ -1,13 +1,77 @@
 package com.fleamarket.dao;
 
+import com.fleamarket.model.dto.SellerProductCount;
+import com.fleamarket.model.dto.SellerSummary;
 import com.fleamarket.model.entity.Seller;
+import jakarta.persistence.QueryHint;
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface SellerRepository extends JpaRepository<Seller, Long> {
-  Optional<Seller> findSellerBySellerName(String username);
+  @Query(
+      "select new com.fleamarket.model.dto.SellerSummary(s.id, s.sellerName) from Seller s"
+          + " where s.sellerName = :username and s.deletedAt is null")
+  Optional<SellerSummary> findSellerSummaryBySellerName(@Param("username") String username);
+
+  @Query(
+      "select new com.fleamarket.model.dto.SellerSummary(s.id, s.sellerName) from Seller s"
+          + " where s.deletedAt is null order by s.id")
+  List<SellerSummary> findAllSellerSummaries();
 
   Boolean existsSellerBySellerName(String username);
+
+  @Modifying
+  @Query(
+      "update Seller s set s.sellerName = :newName"
+          + " where s.id = :id and s.deletedAt is null")
+  int renameSeller(@Param("id") Long id, @Param("newName") String newName);
+
+  @Modifying
+  @Query(
+      "update Seller s set s.productCount = s.productCount + :delta,"
+          + " s.catalogVersion = s.catalogVersion + 1 where s.id = :id and s.deletedAt is null")
+  int recordCatalogChange(@Param("id") Long id, @Param("delta") long delta);
+
+  @Query("select s.catalogVersion from Seller s where s.id = :id and s.deletedAt is null")
+  Optional<Long> findCatalogVersion(@Param("id") Long id);
+
+  @Modifying
+  @Query(
+      "update Seller s set s.deletedAt = :deletedAt"
+          + " where s.id = :id and s.deletedAt is null")
+  int markDeleted(@Param("id") Long id, @Param("deletedAt") Instant deletedAt);
+
+  /** Number of products of a seller, whether it is soft-deleted or not. */
+  @Query(nativeQuery = true, value = "select product_count from seller where id = :id")
+  Optional<Long> findProductCount(@Param("id") Long id);
+
+  /** Removes a seller row for good, whether it is soft-deleted or not. */
+  @Modifying
+  @Query(nativeQuery = true, value = "delete from seller where id = :id")
+  int deleteSellerById(@Param("id") Long id);
+
+  @Query(
+      "select new com.fleamarket.model.dto.SellerSummary(s.id, s.sellerName) from Seller s"
+          + " where s.id > :afterId and s.deletedAt is null order by s.id")
+  List<SellerSummary> findSellerPage(@Param("afterId") Long afterId, Pageable pageable);
+
+  @Query(
+      "select new com.fleamarket.model.dto.SellerProductCount(s.id, s.sellerName, s.productCount)"
+          + " from Seller s where s.deletedAt is null order by s.productCount desc, s.id")
+  List<SellerProductCount> findTopSellersByProductCount(Pageable pageable);
+
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+  @Query("select s.sellerName from Seller s where s.deletedAt is null")
+  Stream<String> streamAllSellerNames();
 }
@@ -1,7 +1,10 @@
 package com.fleamarket.exception;
 
 import com.fleamarket.model.dto.ResponseError;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.HttpRequestMethodNotSupportedException;
 import org.springframework.web.bind.MissingServletRequestParameterException;
@@ -13,29 +16,51 @@ import org.springframework.web.context.request.WebRequest;
 @RestControllerAdvice
 @Slf4j
 public class ControllerExceptionHandler {
+  private MeterRegistry meterRegistry;
+
+  @Autowired
+  public ControllerExceptionHandler(MeterRegistry meterRegistry) {
+    this.meterRegistry = meterRegistry;
+  }
 
   @ExceptionHandler({MissingServletRequestParameterException.class, IllegalArgumentException.class})
   @ResponseStatus(HttpStatus.BAD_REQUEST)
   public ResponseError handleIllegalArgumentException(Exception ex, WebRequest request) {
     String errorMessage = "Error 400: Bad request - " + ex.getMessage();
     log.error(errorMessage);
+    countError(ex, HttpStatus.BAD_REQUEST);
     return new ResponseError(HttpStatus.BAD_REQUEST, ex.getMessage());
   }
 
-  @ExceptionHandler({ProductTakenException.class, SellerTakenException.class})
+  @ExceptionHandler({
+    ProductTakenException.class,
+    SellerTakenException.class,
+    OptimisticLockingFailureException.class
+  })
   @ResponseStatus(HttpStatus.CONFLICT)
   public ResponseError handleResponseException(Exception ex, WebRequest request) {
     String errorMessage = "Error 409: Conflict - " + ex.getMessage();
     log.error(errorMessage);
+    countError(ex, HttpStatus.CONFLICT);
     return new ResponseError(HttpStatus.CONFLICT, ex.getMessage());
   }
 
+  @ExceptionHandler({ListingDisabledException.class})
+  @ResponseStatus(HttpStatus.FORBIDDEN)
+  public ResponseError handleListingDisabledException(Exception ex, WebRequest request) {
+    String errorMessage = "Error 403: Forbidden - " + ex.getMessage();
+    log.error(errorMessage);
+    countError(ex, HttpStatus.FORBIDDEN);
+    return new ResponseError(HttpStatus.FORBIDDEN, ex.getMessage());
+  }
+
   @ExceptionHandler({HttpRequestMethodNotSupportedException.class})
   @ResponseStatus(HttpStatus.METHOD_NOT_ALLOWED)
   public ResponseError handleMethodNotSupportedException(
       HttpRequestMethodNotSupportedException ex, WebRequest request) {
     String errorMessage = "Error 405: Method not supported - " + ex.getMessage();
     log.error(errorMessage);
+    countError(ex, HttpStatus.METHOD_NOT_ALLOWED);
     return new ResponseError(HttpStatus.METHOD_NOT_ALLOWED, ex.getMessage());
   }
 
@@ -44,14 +69,40 @@ public class ControllerExceptionHandler {
   public ResponseError handleAllExceptions(RuntimeException ex, WebRequest request) {
     String errorMessage = "Error 500: Internal server error - " + ex.getMessage();
     log.error(errorMessage);
+    countError(ex, HttpStatus.INTERNAL_SERVER_ERROR);
     return new ResponseError(HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage());
   }
 
-  @ExceptionHandler({SellerNotFoundException.class, ProductNotFoundException.class})
+  @ExceptionHandler({
+    SellerNotFoundException.class,
+    ProductNotFoundException.class,
+    DeletionJobNotFoundException.class
+  })
   @ResponseStatus(HttpStatus.NOT_FOUND)
   public ResponseError notFoundException(RuntimeException ex, WebRequest request) {
     String errorMessage = "Error 404: Not Found - " + ex.getMessage();
     log.error(errorMessage);
+    countError(ex, HttpStatus.NOT_FOUND);
     return new ResponseError(HttpStatus.NOT_FOUND, ex.getMessage());
   }
+
+  @ExceptionHandler({OverloadedException.class})
+  @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+  public ResponseError overloadedException(OverloadedException ex, WebRequest request) {
+    // Expected under load and already counted, so it is not logged as an error
+    log.debug("Error 503: Service unavailable - {}", ex.getMessage());
+    countError(ex, HttpStatus.SERVICE_UNAVAILABLE);
+    return new ResponseError(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage());
+  }
+
+  private void countError(Exception ex, HttpStatus status) {
+    meterRegistry
+        .counter(
+            "fleamarket.errors",
+            "exception",
+            ex.getClass().getSimpleName(),
+            "status",
+            String.valueOf(status.value()))
+        .increment();
+  }
 }
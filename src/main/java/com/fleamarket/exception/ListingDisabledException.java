@@ -0,0 +1,7 @@
+package com.fleamarket.exception;
+
+public class ListingDisabledException extends RuntimeException {
+  public ListingDisabledException(String message) {
+    super(message);
+  }
+}
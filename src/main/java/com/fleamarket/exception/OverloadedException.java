@@ -0,0 +1,7 @@
+package com.fleamarket.exception;
+
+public class OverloadedException extends RuntimeException {
+  public OverloadedException(String message) {
+    super(message);
+  }
+}
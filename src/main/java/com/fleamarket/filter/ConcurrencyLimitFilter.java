@@ -0,0 +1,104 @@
+package com.fleamarket.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fleamarket.model.dto.ResponseError;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Caps the number of requests that work against the database at the same time. With virtual
+ * threads Tomcat no longer limits concurrency, so without this every request would queue inside
+ * the connection pool. Requests that cannot get a permit within the timeout get 503.
+ *
+ * <p>A request that goes async, like the NDJSON export, keeps its permit until the async work
+ * completes, since it reads from the database while it streams. Paths that match one of the
+ * excluded patterns are let through without a permit: the Server-Sent Event streams hold no
+ * connection while they wait for events, and the coalesced reads take a permit only for the load
+ * they run, so callers waiting for another caller's load do not use up the permits.
+ */
+@Slf4j
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+  private final DatabasePermits permits;
+  private final ObjectMapper objectMapper;
+  private final List<String> excludedPatterns;
+  private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+  public ConcurrencyLimitFilter(
+      DatabasePermits permits, List<String> excludedPatterns, ObjectMapper objectMapper) {
+    this.permits = permits;
+    this.excludedPatterns = List.copyOf(excludedPatterns);
+    this.objectMapper = objectMapper;
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    String path = request.getRequestURI().substring(request.getContextPath().length());
+    return excludedPatterns.stream().anyMatch(pattern -> pathMatcher.match(pattern, path));
+  }
+
+  @Override
+  protected void doFilterInternal(
+      HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    if (!permits.tryAcquire()) {
+      log.debug("Rejected {} for lack of a database permit", request.getRequestURI());
+      response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+      response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+      objectMapper.writeValue(
+          response.getOutputStream(),
+          new ResponseError(HttpStatus.SERVICE_UNAVAILABLE, DatabasePermits.OVERLOADED_MESSAGE));
+      return;
+    }
+    AtomicBoolean held = new AtomicBoolean(true);
+    Runnable release =
+        () -> {
+          if (held.compareAndSet(true, false)) {
+            permits.release();
+          }
+        };
+    try {
+      filterChain.doFilter(request, response);
+    } finally {
+      if (request.isAsyncStarted()) {
+        request.getAsyncContext().addListener(new ReleasingListener(release));
+      } else {
+        release.run();
+      }
+    }
+  }
+
+  /** Releases the permit of an async request once it completes, fails or times out. */
+  private record ReleasingListener(Runnable release) implements AsyncListener {
+    @Override
+    public void onComplete(AsyncEvent event) {
+      release.run();
+    }
+
+    @Override
+    public void onTimeout(AsyncEvent event) {
+      release.run();
+    }
+
+    @Override
+    public void onError(AsyncEvent event) {
+      release.run();
+    }
+
+    @Override
+    public void onStartAsync(AsyncEvent event) {
+      event.getAsyncContext().addListener(this);
+    }
+  }
+}
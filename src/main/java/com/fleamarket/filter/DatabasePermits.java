@@ -0,0 +1,73 @@
+package com.fleamarket.filter;
+
+import com.fleamarket.exception.OverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Permits to work against the database, shared by the concurrency limiter and the reads that are
+ * coalesced per key. A caller waits up to the acquire timeout for a permit and is turned away
+ * without one.
+ */
+public class DatabasePermits {
+  public static final String OVERLOADED_MESSAGE = "Service is overloaded, try again later";
+
+  private final Semaphore permits;
+  private final long acquireTimeoutNanos;
+  private final Counter rejected;
+
+  public DatabasePermits(int maxConcurrency, Duration acquireTimeout, MeterRegistry meterRegistry) {
+    this.permits = new Semaphore(maxConcurrency, true);
+    this.acquireTimeoutNanos = acquireTimeout.toNanos();
+    this.rejected = meterRegistry.counter("fleamarket.concurrency.rejected");
+    meterRegistry.gauge(
+        "fleamarket.concurrency.in.flight",
+        permits,
+        semaphore -> maxConcurrency - (double) semaphore.availablePermits());
+  }
+
+  /**
+   * Waits for a permit. A caller that gets one must {@link #release()} it.
+   *
+   * @return Whether a permit was acquired within the timeout
+   */
+  public boolean tryAcquire() {
+    boolean acquired;
+    try {
+      acquired = permits.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      acquired = false;
+    }
+    if (!acquired) {
+      rejected.increment();
+    }
+    return acquired;
+  }
+
+  public void release() {
+    permits.release();
+  }
+
+  /**
+   * Runs work against the database while holding a permit.
+   *
+   * @param work Work to run
+   * @return Result of the work
+   * @throws OverloadedException if no permit was acquired within the timeout
+   */
+  public <T> T call(Supplier<T> work) {
+    if (!tryAcquire()) {
+      throw new OverloadedException(OVERLOADED_MESSAGE);
+    }
+    try {
+      return work.get();
+    } finally {
+      release();
+    }
+  }
+}
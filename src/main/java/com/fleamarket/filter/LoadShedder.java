@@ -0,0 +1,94 @@
+package com.fleamarket.filter;
+
+import com.fleamarket.config.RateLimitProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Decides whether expensive requests should be turned away. Checks the p99 time to get a pooled
+ * connection and the p99 latency of the requests passing the rate limit at a fixed interval, so
+ * the decision on the request path is a single volatile read. Endpoints whose requests are long by
+ * design, such as bulk adds and exports, are left out of the latency, since a few of them would
+ * otherwise keep the p99 above the threshold without any overload.
+ */
+@Component
+@Slf4j
+public class LoadShedder {
+  private static final double P99 = 0.99;
+
+  private final MeterRegistry meterRegistry;
+  private final RateLimitProperties.Shedding properties;
+  private final Timer latency;
+  private volatile boolean overloaded;
+
+  @Autowired
+  public LoadShedder(MeterRegistry meterRegistry, RateLimitProperties properties) {
+    this.meterRegistry = meterRegistry;
+    this.properties = properties.getShedding();
+    this.latency =
+        Timer.builder("fleamarket.shedding.latency")
+            .description("Latency of requests passing the rate limit")
+            .publishPercentiles(P99)
+            .distributionStatisticExpiry(Duration.ofSeconds(30))
+            .distributionStatisticBufferLength(3)
+            .register(meterRegistry);
+    meterRegistry.gauge("fleamarket.shedding.active", this, shedder -> shedder.overloaded ? 1 : 0);
+  }
+
+  /**
+   * Tells whether a request should be shed.
+   *
+   * @param cost Cost of the request in rate limit tokens
+   */
+  public boolean shouldShed(long cost) {
+    return overloaded && cost >= properties.getMinCost();
+  }
+
+  /**
+   * Records how long a request took.
+   *
+   * @param nanos Duration of the request
+   */
+  public void record(long nanos) {
+    latency.record(nanos, TimeUnit.NANOSECONDS);
+  }
+
+  @Scheduled(fixedDelayString = "${fleamarket.rate-limit.shedding.check-interval-ms:1000}")
+  public void check() {
+    if (!properties.isEnabled()) {
+      return;
+    }
+    double poolWait = 0;
+    for (Timer acquire : meterRegistry.find("hikaricp.connections.acquire").timers()) {
+      poolWait = Math.max(poolWait, p99(acquire));
+    }
+    double requestLatency = p99(latency);
+    boolean nowOverloaded =
+        poolWait > properties.getMaxPoolWait().toNanos()
+            || requestLatency > properties.getMaxLatency().toNanos();
+    if (nowOverloaded != overloaded) {
+      log.warn(
+          "Load shedding {}: p99 pool wait {} ms, p99 latency {} ms",
+          nowOverloaded ? "started" : "stopped",
+          (long) (poolWait / 1_000_000),
+          (long) (requestLatency / 1_000_000));
+      overloaded = nowOverloaded;
+    }
+  }
+
+  private static double p99(Timer timer) {
+    for (ValueAtPercentile value : timer.takeSnapshot().percentileValues()) {
+      if (value.percentile() == P99) {
+        return value.value(TimeUnit.NANOSECONDS);
+      }
+    }
+    return 0;
+  }
+}
@@ -0,0 +1,178 @@
+package com.fleamarket.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fleamarket.config.RateLimitProperties;
+import com.fleamarket.model.dto.ResponseError;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Limits how fast every client may call the API and turns expensive requests away while the
+ * database is overloaded. Each client, identified by its address or by the configured client
+ * header, has a token bucket; requests take as many tokens as their endpoint costs and get 429 when
+ * the bucket is empty. Endpoints can also have a bucket of their own per client. While the {@link
+ * LoadShedder} reports overload, requests that cost at least the shedding threshold get 503.
+ */
+@Slf4j
+public class RateLimitFilter extends OncePerRequestFilter {
+  private static final String RATE_LIMITED_MESSAGE = "Too many requests, try again later";
+  private static final String OVERLOADED_MESSAGE = "Service is overloaded, try again later";
+  private static final String DEFAULT_ENDPOINT = "default";
+
+  private final RateLimitProperties properties;
+  private final LoadShedder loadShedder;
+  private final ObjectMapper objectMapper;
+  private final MeterRegistry meterRegistry;
+  private final List<Endpoint> endpoints = new ArrayList<>();
+  private final Endpoint defaultEndpoint;
+  private final Cache<String, TokenBucket> buckets;
+  private final AntPathMatcher pathMatcher = new AntPathMatcher();
+  private final Counter shed;
+
+  public RateLimitFilter(
+      RateLimitProperties properties,
+      LoadShedder loadShedder,
+      ObjectMapper objectMapper,
+      MeterRegistry meterRegistry) {
+    this.properties = properties;
+    this.loadShedder = loadShedder;
+    this.objectMapper = objectMapper;
+    this.meterRegistry = meterRegistry;
+    for (Map.Entry<String, RateLimitProperties.Endpoint> entry :
+        properties.getEndpoints().entrySet()) {
+      endpoints.add(new Endpoint(entry.getKey(), entry.getValue()));
+    }
+    RateLimitProperties.Endpoint defaults = new RateLimitProperties.Endpoint();
+    defaults.setCost(properties.getDefaultCost());
+    this.defaultEndpoint = new Endpoint(DEFAULT_ENDPOINT, defaults);
+    this.buckets =
+        Caffeine.newBuilder()
+            .maximumSize(properties.getMaxClients())
+            .expireAfterAccess(properties.getClientIdleTimeout())
+            .build();
+    this.shed = meterRegistry.counter("fleamarket.shedding.rejected");
+  }
+
+  @Override
+  protected void doFilterInternal(
+      HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    Endpoint endpoint = resolve(request);
+    long cost = endpoint.properties.getCost();
+    if (loadShedder.shouldShed(cost)) {
+      shed.increment();
+      log.debug("Shed request to {}", endpoint.name);
+      reject(response, HttpStatus.SERVICE_UNAVAILABLE, OVERLOADED_MESSAGE, 1);
+      return;
+    }
+    String client = clientOf(request);
+    long now = System.nanoTime();
+    long waitNanos = 0;
+    TokenBucket endpointBucket = null;
+    if (endpoint.properties.getRatePerSecond() != null) {
+      endpointBucket = buckets.get(client + ' ' + endpoint.name, key -> endpoint.newBucket(now));
+      waitNanos = endpointBucket.tryConsume(1, now);
+    }
+    if (waitNanos == 0) {
+      waitNanos = buckets.get(client, key -> newClientBucket(now)).tryConsume(cost, now);
+      if (waitNanos > 0 && endpointBucket != null) {
+        // The request is rejected, so it must not use up the endpoint's allowance either
+        endpointBucket.refund(1);
+      }
+    }
+    if (waitNanos > 0) {
+      endpoint.rejected.increment();
+      log.debug("Rate limited {} on {}", client, endpoint.name);
+      long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999));
+      reject(response, HttpStatus.TOO_MANY_REQUESTS, RATE_LIMITED_MESSAGE, retryAfter);
+      return;
+    }
+    try {
+      filterChain.doFilter(request, response);
+    } finally {
+      if (endpoint.properties.isSheddingLatency()) {
+        loadShedder.record(System.nanoTime() - now);
+      }
+    }
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    return !properties.isEnabled();
+  }
+
+  /**
+   * Util function, identifies the client of a request. Behind a proxy the remote address is the
+   * client's own once {@code server.forward-headers-strategy} is set, unless a CDN puts the client
+   * address in a header of its own.
+   */
+  private String clientOf(HttpServletRequest request) {
+    String header = properties.getClientHeader();
+    if (header != null && !header.isBlank()) {
+      String client = request.getHeader(header);
+      if (client != null && !client.isBlank()) {
+        return client.trim();
+      }
+    }
+    return request.getRemoteAddr();
+  }
+
+  private TokenBucket newClientBucket(long now) {
+    return new TokenBucket(properties.getRatePerSecond(), properties.getCapacity(), now);
+  }
+
+  private Endpoint resolve(HttpServletRequest request) {
+    String path = request.getRequestURI().substring(request.getContextPath().length());
+    for (Endpoint endpoint : endpoints) {
+      if (pathMatcher.match(endpoint.properties.getPath(), path)) {
+        return endpoint;
+      }
+    }
+    return defaultEndpoint;
+  }
+
+  private void reject(
+      HttpServletResponse response, HttpStatus status, String message, long retryAfterSeconds)
+      throws IOException {
+    response.setStatus(status.value());
+    response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+    response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+    objectMapper.writeValue(response.getOutputStream(), new ResponseError(status, message));
+  }
+
+  private class Endpoint {
+    private final String name;
+    private final RateLimitProperties.Endpoint properties;
+    private final Counter rejected;
+
+    private Endpoint(String name, RateLimitProperties.Endpoint properties) {
+      this.name = name;
+      this.properties = properties;
+      this.rejected = meterRegistry.counter("fleamarket.ratelimit.rejected", "endpoint", name);
+    }
+
+    private TokenBucket newBucket(long now) {
+      double rate = properties.getRatePerSecond();
+      long capacity =
+          properties.getCapacity() != null ? properties.getCapacity() : Math.max(1, (long) rate);
+      return new TokenBucket(rate, capacity, now);
+    }
+  }
+}
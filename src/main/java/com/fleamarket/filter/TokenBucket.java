@@ -0,0 +1,56 @@
+package com.fleamarket.filter;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket. Instead of a token count it keeps the time at which the bucket will be
+ * full again (the generic cell rate algorithm), so refilling needs no background task and taking
+ * tokens is a single compare-and-set on one {@link AtomicLong}.
+ */
+public class TokenBucket {
+  private final long nanosPerToken;
+  private final long burstNanos;
+  private final AtomicLong fullAt;
+
+  /**
+   * @param ratePerSecond Tokens added per second
+   * @param capacity Maximum number of tokens, the size of the largest burst
+   * @param now Current {@link System#nanoTime()}, the bucket starts full
+   */
+  public TokenBucket(double ratePerSecond, long capacity, long now) {
+    this.nanosPerToken = Math.max(1L, (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond));
+    this.burstNanos = capacity * nanosPerToken;
+    this.fullAt = new AtomicLong(now);
+  }
+
+  /**
+   * Takes tokens if the bucket holds enough of them.
+   *
+   * @param tokens Number of tokens to take
+   * @param now Current {@link System#nanoTime()}
+   * @return 0 if the tokens were taken, otherwise the nanoseconds until enough tokens are available
+   */
+  public long tryConsume(long tokens, long now) {
+    while (true) {
+      long current = fullAt.get();
+      long next = Math.max(current, now) + tokens * nanosPerToken;
+      long excess = next - now - burstNanos;
+      if (excess > 0) {
+        return excess;
+      }
+      if (fullAt.compareAndSet(current, next)) {
+        return 0;
+      }
+    }
+  }
+
+  /**
+   * Gives back tokens taken by {@link #tryConsume} for a request that was turned away after all.
+   *
+   * @param tokens Number of tokens to give back
+   */
+  public void refund(long tokens) {
+    fullAt.addAndGet(-tokens * nanosPerToken);
+  }
+}
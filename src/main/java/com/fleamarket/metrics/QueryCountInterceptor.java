@@ -0,0 +1,36 @@
+package com.fleamarket.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/** Records how many SQL statements every request executed, tagged by URI pattern. */
+public class QueryCountInterceptor implements HandlerInterceptor {
+  private final MeterRegistry meterRegistry;
+
+  public QueryCountInterceptor(MeterRegistry meterRegistry) {
+    this.meterRegistry = meterRegistry;
+  }
+
+  @Override
+  public boolean preHandle(
+      HttpServletRequest request, HttpServletResponse response, Object handler) {
+    StatementCounter.reset();
+    return true;
+  }
+
+  @Override
+  public void afterCompletion(
+      HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+    Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+    DistributionSummary.builder("fleamarket.db.statements")
+        .description("SQL statements executed per request")
+        .tag("uri", pattern == null ? "UNKNOWN" : pattern.toString())
+        .publishPercentiles(0.5, 0.99)
+        .register(meterRegistry)
+        .record(StatementCounter.get());
+  }
+}
@@ -0,0 +1,26 @@
+package com.fleamarket.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread. Registered through {@code
+ * hibernate.session_factory.statement_inspector}, and read by {@link QueryCountInterceptor} once
+ * per request.
+ */
+public class StatementCounter implements StatementInspector {
+  private static final ThreadLocal<int[]> COUNT = ThreadLocal.withInitial(() -> new int[1]);
+
+  @Override
+  public String inspect(String sql) {
+    COUNT.get()[0]++;
+    return sql;
+  }
+
+  public static void reset() {
+    COUNT.get()[0] = 0;
+  }
+
+  public static int get() {
+    return COUNT.get()[0];
+  }
+}
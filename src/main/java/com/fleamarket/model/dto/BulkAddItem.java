@@ -0,0 +1,15 @@
+package com.fleamarket.model.dto;
+
+import lombok.Data;
+
+@Data
+public class BulkAddItem {
+  private final String product;
+  private final Status status;
+
+  public enum Status {
+    ADDED,
+    DUPLICATE,
+    EMPTY
+  }
+}
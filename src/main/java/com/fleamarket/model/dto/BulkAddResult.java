@@ -0,0 +1,11 @@
+package com.fleamarket.model.dto;
+
+import java.util.List;
+import lombok.Data;
+
+@Data
+public class BulkAddResult {
+  private final int added;
+  private final int skipped;
+  private final List<BulkAddItem> items;
+}
@@ -0,0 +1,26 @@
+package com.fleamarket.model.dto;
+
+import java.time.Instant;
+import lombok.Data;
+
+@Data
+public class ChangeEvent {
+  private final Long id;
+  private final Long position;
+  private final Type type;
+  private final Long sellerId;
+  private final String sellerName;
+  private final Long productId;
+  private final String productName;
+  private final String previousName;
+  private final Instant occurredAt;
+
+  public enum Type {
+    SELLER_CREATED,
+    SELLER_RENAMED,
+    SELLER_DELETED,
+    PRODUCT_ADDED,
+    PRODUCT_RENAMED,
+    PRODUCT_DELETED
+  }
+}
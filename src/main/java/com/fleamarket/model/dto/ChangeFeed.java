@@ -0,0 +1,10 @@
+package com.fleamarket.model.dto;
+
+import java.util.List;
+import lombok.Data;
+
+@Data
+public class ChangeFeed {
+  private final List<ChangeEvent> events;
+  private final long cursor;
+}
@@ -0,0 +1,11 @@
+package com.fleamarket.model.dto;
+
+public interface ProductSearchHit {
+  Long getId();
+
+  String getProductName();
+
+  String getSellerName();
+
+  Float getScore();
+}
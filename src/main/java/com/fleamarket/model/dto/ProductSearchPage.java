@@ -0,0 +1,10 @@
+package com.fleamarket.model.dto;
+
+import java.util.List;
+import lombok.Data;
+
+@Data
+public class ProductSearchPage {
+  private final List<ProductSearchHit> hits;
+  private final String nextToken;
+}
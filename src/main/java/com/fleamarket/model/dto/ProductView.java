@@ -0,0 +1,9 @@
+package com.fleamarket.model.dto;
+
+import lombok.Data;
+
+@Data
+public class ProductView {
+  private final Long id;
+  private final String productName;
+}
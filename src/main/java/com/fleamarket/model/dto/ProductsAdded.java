@@ -0,0 +1,16 @@
+package com.fleamarket.model.dto;
+
+import java.util.List;
+import lombok.Data;
+
+/**
+ * Products added to one seller by consecutive changes, sent to stream subscribers as a single
+ * event. The position is the one of the last addition.
+ */
+@Data
+public class ProductsAdded {
+  private final Long position;
+  private final Long sellerId;
+  private final String sellerName;
+  private final List<ProductView> products;
+}
@@ -0,0 +1,23 @@
+package com.fleamarket.model.dto;
+
+import java.time.Instant;
+import lombok.Data;
+
+@Data
+public class SellerDeletionStatus {
+  private final Long id;
+  private final Long sellerId;
+  private final String sellerName;
+  private final Status status;
+  private final long totalProducts;
+  private final long deletedProducts;
+  private final Instant createdAt;
+  private final Instant completedAt;
+  private final String error;
+
+  public enum Status {
+    RUNNING,
+    COMPLETED,
+    FAILED
+  }
+}
@@ -0,0 +1,10 @@
+package com.fleamarket.model.dto;
+
+import java.util.List;
+import lombok.Data;
+
+@Data
+public class SellerPage {
+  private final List<SellerSummary> sellers;
+  private final String nextToken;
+}
@@ -0,0 +1,10 @@
+package com.fleamarket.model.dto;
+
+import lombok.Data;
+
+@Data
+public class SellerProductCount {
+  private final Long id;
+  private final String sellerName;
+  private final long productCount;
+}
@@ -0,0 +1,10 @@
+package com.fleamarket.model.dto;
+
+import lombok.Data;
+
+/** Name of a product together with its seller, which identifies a live product. */
+@Data
+public class SellerProductName {
+  private final Long sellerId;
+  private final String productName;
+}
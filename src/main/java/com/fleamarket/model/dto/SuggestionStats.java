@@ -0,0 +1,11 @@
+package com.fleamarket.model.dto;
+
+import lombok.Data;
+
+@Data
+public class SuggestionStats {
+  private final int productNames;
+  private final int sellerNames;
+  private final long estimatedBytes;
+  private final long estimatedBytesPerMillionNames;
+}
@@ -0,0 +1,10 @@
+package com.fleamarket.model.dto;
+
+import java.util.List;
+import lombok.Data;
+
+@Data
+public class Suggestions {
+  private final List<String> products;
+  private final List<String> sellers;
+}
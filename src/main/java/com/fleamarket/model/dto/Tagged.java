@@ -0,0 +1,9 @@
+package com.fleamarket.model.dto;
+
+import lombok.Data;
+
+@Data
+public class Tagged<T> {
+  private final String etag;
+  private final T value;
+}
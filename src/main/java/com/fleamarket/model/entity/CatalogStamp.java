@@ -0,0 +1,28 @@
+package com.fleamarket.model.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Counter that is incremented whenever a listing changes, used to build ETags without loading the
+ * listing. One row per listing scope. The outbox scope holds the last feed position handed out to
+ * change events.
+ */
+@Entity
+@Table(name = "catalog_stamps")
+@Getter
+@Setter
+@AllArgsConstructor
+@Builder
+@NoArgsConstructor
+public class CatalogStamp {
+  public static final String SELLERS = "sellers";
+  public static final String OUTBOX = "outbox";
+
+  @Id
+  @Column(length = 32)
+  private String scope;
+
+  @Column(nullable = false)
+  private long version;
+}
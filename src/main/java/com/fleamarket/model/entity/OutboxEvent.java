@@ -0,0 +1,54 @@
+package com.fleamarket.model.entity;
+
+import com.fleamarket.model.dto.ChangeEvent;
+import jakarta.persistence.*;
+import java.time.Instant;
+import lombok.*;
+
+@Entity
+@Table(name = "outbox_events")
+@Getter
+@Setter
+@AllArgsConstructor
+@Builder
+@NoArgsConstructor
+public class OutboxEvent {
+  @Id
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_events_seq")
+  @SequenceGenerator(
+      name = "outbox_events_seq",
+      sequenceName = "outbox_events_seq",
+      allocationSize = 50)
+  private Long id;
+
+  /**
+   * Place of the event in the change feed, assigned by the publisher once the event is committed.
+   * Positions are handed out in commit order, unlike IDs, which come from pooled sequence blocks.
+   */
+  @Column(name = "feed_position", unique = true)
+  private Long position;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false, length = 32)
+  private ChangeEvent.Type type;
+
+  private Long sellerId;
+
+  private String sellerName;
+
+  private Long productId;
+
+  private String productName;
+
+  private String previousName;
+
+  @Column(nullable = false)
+  private Instant occurredAt;
+
+  private Instant publishedAt;
+
+  public ChangeEvent toChangeEvent() {
+    return new ChangeEvent(
+        id, position, type, sellerId, sellerName, productId, productName, previousName, occurredAt);
+  }
+}
@@ -2,25 +2,38 @@ package com.fleamarket.model.entity;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
+import java.time.Instant;
 import lombok.*;
+import org.hibernate.annotations.SQLRestriction;
 
+/**
+ * Product of a seller. Deleted products keep their row with {@code deleted_at} set until the purger
+ * removes them, and are left out of every query on the entity.
+ */
 @Entity
 @Table(name = "products")
+@SQLRestriction("deleted_at is null")
 @Getter
 @Setter
 @AllArgsConstructor
 @Builder
 @NoArgsConstructor
 public class Product {
+  /** Partial unique index on the seller and name of live products, see schema-postgresql.sql. */
+  public static final String SELLER_PRODUCT_CONSTRAINT = "uk_products_seller_product";
+
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "products_seq")
+  @SequenceGenerator(name = "products_seq", sequenceName = "products_seq", allocationSize = 50)
   private Long id;
 
   @Column(name = "product")
   private String productName;
 
+  @JsonIgnore private Instant deletedAt;
+
   @JsonIgnore
-  @ManyToOne(fetch = FetchType.EAGER)
+  @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "seller_id")
   private Seller seller;
 }
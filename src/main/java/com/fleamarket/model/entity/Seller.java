@@ -2,17 +2,27 @@ package com.fleamarket.model.entity;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
+import java.time.Instant;
 import java.util.List;
 import lombok.*;
+import org.hibernate.annotations.SQLRestriction;
 
+/**
+ * Seller with their products. Deleted sellers keep their row with {@code deleted_at} set until the
+ * deletion job has removed their products, and are left out of every query on the entity.
+ */
 @Entity
 @Table(name = "seller")
+@SQLRestriction("deleted_at is null")
 @Getter
 @Setter
 @AllArgsConstructor
 @Builder
 @NoArgsConstructor
 public class Seller {
+  /** Partial unique index on the names of live sellers, see schema-postgresql.sql. */
+  public static final String NAME_CONSTRAINT = "uk_seller_seller";
+
   @Id
   @GeneratedValue(strategy = GenerationType.IDENTITY)
   private Long id;
@@ -20,9 +30,22 @@ public class Seller {
   @Column(name = "seller")
   private String sellerName;
 
+  /** Incremented whenever a product of the seller is added, renamed or deleted. */
+  @JsonIgnore
+  @Column(nullable = false)
+  private long catalogVersion;
+
+  /** Number of products of the seller, maintained by the statement that bumps the catalog version. */
+  @JsonIgnore
+  @Column(nullable = false)
+  private long productCount;
+
+  /** Set when the seller is deleted; the row stays until its products have been removed. */
+  @JsonIgnore private Instant deletedAt;
+
   @OneToMany(
       mappedBy = "seller",
-      fetch = FetchType.EAGER,
+      fetch = FetchType.LAZY,
       cascade = {
         CascadeType.DETACH,
         CascadeType.REFRESH,
@@ -32,15 +55,4 @@ public class Seller {
       })
   @JsonIgnore
   private List<Product> products;
-
-  public Product getProduct(String productName) {
-    return products.stream()
-        .filter(p -> p.getProductName().equals(productName))
-        .findFirst()
-        .orElse(null);
-  }
-
-  public void addProduct(Product product) {
-    products.add(product);
-  }
 }
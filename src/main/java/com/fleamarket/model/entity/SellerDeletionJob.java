@@ -0,0 +1,59 @@
+package com.fleamarket.model.entity;
+
+import com.fleamarket.model.dto.SellerDeletionStatus;
+import jakarta.persistence.*;
+import java.time.Instant;
+import lombok.*;
+
+@Entity
+@Table(
+    name = "seller_deletion_jobs",
+    indexes = @Index(name = "idx_seller_deletion_jobs_status", columnList = "status"))
+@Getter
+@Setter
+@AllArgsConstructor
+@Builder
+@NoArgsConstructor
+public class SellerDeletionJob {
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(nullable = false)
+  private Long sellerId;
+
+  private String sellerName;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false, length = 16)
+  private SellerDeletionStatus.Status status;
+
+  /** Number of products the seller had when it was deleted, from its product count. */
+  private long totalProducts;
+
+  /** Number of those products removed so far; soft-deleted rows are removed without counting. */
+  private long deletedProducts;
+
+  @Column(nullable = false)
+  private Instant createdAt;
+
+  private Instant updatedAt;
+
+  private Instant completedAt;
+
+  @Column(length = 1000)
+  private String error;
+
+  public SellerDeletionStatus toStatus() {
+    return new SellerDeletionStatus(
+        id,
+        sellerId,
+        sellerName,
+        status,
+        totalProducts,
+        deletedProducts,
+        createdAt,
+        completedAt,
+        error);
+  }
+}
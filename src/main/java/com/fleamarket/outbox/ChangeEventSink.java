@@ -0,0 +1,20 @@
+package com.fleamarket.outbox;
+
+import com.fleamarket.model.dto.ChangeEvent;
+import java.util.List;
+
+/**
+ * Destination of the events drained from the outbox. Delivery is at least once: a batch is
+ * published again when the sink throws or the application stops before the batch is marked as
+ * published, so consumers should ignore event IDs they have already seen.
+ */
+public interface ChangeEventSink {
+
+  /**
+   * Publishes a batch of events.
+   *
+   * @param events Events in feed position order
+   * @throws Exception if the batch could not be published and has to be retried
+   */
+  void publish(List<ChangeEvent> events) throws Exception;
+}
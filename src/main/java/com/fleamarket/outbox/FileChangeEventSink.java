@@ -0,0 +1,40 @@
+package com.fleamarket.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fleamarket.model.dto.ChangeEvent;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/** Appends events to a file as newline-delimited JSON. */
+@Component
+@ConditionalOnProperty(name = "fleamarket.outbox.sink", havingValue = "file")
+public class FileChangeEventSink implements ChangeEventSink {
+  private final Path file;
+  private final ObjectMapper objectMapper;
+
+  @Autowired
+  public FileChangeEventSink(
+      @Value("${fleamarket.outbox.file:changes.ndjson}") Path file, ObjectMapper objectMapper) {
+    this.file = file;
+    this.objectMapper = objectMapper;
+  }
+
+  @Override
+  public synchronized void publish(List<ChangeEvent> events) throws IOException {
+    try (OutputStream out =
+        Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+      for (ChangeEvent event : events) {
+        out.write(objectMapper.writeValueAsBytes(event));
+        out.write('\n');
+      }
+    }
+  }
+}
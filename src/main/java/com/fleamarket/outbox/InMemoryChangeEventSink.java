@@ -0,0 +1,27 @@
+package com.fleamarket.outbox;
+
+import com.fleamarket.model.dto.ChangeEvent;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/** Keeps published events in memory, meant for tests and local runs. */
+@Component
+@ConditionalOnProperty(name = "fleamarket.outbox.sink", havingValue = "memory")
+public class InMemoryChangeEventSink implements ChangeEventSink {
+  private final List<ChangeEvent> events = new ArrayList<>();
+
+  @Override
+  public synchronized void publish(List<ChangeEvent> batch) {
+    events.addAll(batch);
+  }
+
+  public synchronized List<ChangeEvent> getEvents() {
+    return List.copyOf(events);
+  }
+
+  public synchronized void clear() {
+    events.clear();
+  }
+}
@@ -0,0 +1,18 @@
+package com.fleamarket.outbox;
+
+import com.fleamarket.model.dto.ChangeEvent;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConditionalOnProperty(name = "fleamarket.outbox.sink", havingValue = "log", matchIfMissing = true)
+@Slf4j
+public class LogChangeEventSink implements ChangeEventSink {
+
+  @Override
+  public void publish(List<ChangeEvent> events) {
+    events.forEach(event -> log.info("Change event {}", event));
+  }
+}
@@ -0,0 +1,124 @@
+package com.fleamarket.outbox;
+
+import com.fleamarket.dao.CatalogStampRepository;
+import com.fleamarket.dao.OutboxEventRepository;
+import com.fleamarket.model.entity.CatalogStamp;
+import com.fleamarket.model.entity.OutboxEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Drains the outbox into the configured {@link ChangeEventSink}. Committed events first get their
+ * feed positions: the range is reserved on the outbox stamp row, whose lock is held until the
+ * batch commits, so positions become visible in the order they were handed out and the change
+ * feed never has to wait for a gap to fill. Then each batch is locked, published in position order
+ * and marked as published in one transaction, so a failing sink leaves the batch in the outbox for
+ * the next run.
+ */
+@Component
+@Slf4j
+public class OutboxPublisher {
+  private final OutboxEventRepository outboxEventRepository;
+  private final CatalogStampRepository catalogStampRepository;
+  private final ChangeEventSink sink;
+  private final TransactionTemplate transactionTemplate;
+  private final int batchSize;
+  private final int maxBatchesPerRun;
+  private final Counter published;
+  private final Counter failures;
+
+  @Autowired
+  public OutboxPublisher(
+      OutboxEventRepository outboxEventRepository,
+      CatalogStampRepository catalogStampRepository,
+      ChangeEventSink sink,
+      PlatformTransactionManager transactionManager,
+      MeterRegistry meterRegistry,
+      @Value("${fleamarket.outbox.batch-size:500}") int batchSize,
+      @Value("${fleamarket.outbox.max-batches-per-run:20}") int maxBatchesPerRun) {
+    this.outboxEventRepository = outboxEventRepository;
+    this.catalogStampRepository = catalogStampRepository;
+    this.sink = sink;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.batchSize = batchSize;
+    this.maxBatchesPerRun = maxBatchesPerRun;
+    this.published = meterRegistry.counter("fleamarket.outbox.published");
+    this.failures = meterRegistry.counter("fleamarket.outbox.failures");
+  }
+
+  @Scheduled(fixedDelayString = "${fleamarket.outbox.poll-interval-ms:1000}")
+  public void drain() {
+    try {
+      runBatches(this::positionBatch);
+      runBatches(this::publishBatch);
+    } catch (RuntimeException ex) {
+      failures.increment();
+      log.warn("Publishing outbox events failed, retrying on the next run", ex);
+    }
+  }
+
+  private void runBatches(Supplier<Integer> batch) {
+    for (int run = 0; run < maxBatchesPerRun; run++) {
+      Integer count = transactionTemplate.execute(status -> batch.get());
+      if (count == null || count < batchSize) {
+        return;
+      }
+    }
+  }
+
+  private int positionBatch() {
+    List<OutboxEvent> events =
+        outboxEventRepository.lockUnpositioned(PageRequest.of(0, batchSize));
+    if (events.isEmpty()) {
+      return 0;
+    }
+    long position = reservePositions(events.size()) - events.size();
+    for (OutboxEvent event : events) {
+      event.setPosition(++position);
+    }
+    return events.size();
+  }
+
+  /**
+   * Util function, reserves a range of feed positions. Creates the outbox stamp when the database
+   * was not seeded with it.
+   *
+   * @return Last position of the range
+   */
+  private long reservePositions(int count) {
+    if (catalogStampRepository.addToVersion(CatalogStamp.OUTBOX, count) == 0) {
+      catalogStampRepository.saveAndFlush(new CatalogStamp(CatalogStamp.OUTBOX, count));
+      return count;
+    }
+    return catalogStampRepository.findVersion(CatalogStamp.OUTBOX).orElseThrow();
+  }
+
+  private int publishBatch() {
+    List<OutboxEvent> events = outboxEventRepository.lockUnpublished(PageRequest.of(0, batchSize));
+    if (events.isEmpty()) {
+      return 0;
+    }
+    try {
+      sink.publish(events.stream().map(OutboxEvent::toChangeEvent).toList());
+    } catch (RuntimeException ex) {
+      throw ex;
+    } catch (Exception ex) {
+      throw new IllegalStateException("Change event sink failed", ex);
+    }
+    outboxEventRepository.markPublished(
+        events.stream().map(OutboxEvent::getId).toList(), Instant.now());
+    published.increment(events.size());
+    return events.size();
+  }
+}
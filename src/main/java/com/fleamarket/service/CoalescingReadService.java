@@ -0,0 +1,109 @@
+package com.fleamarket.service;
+
+import com.fleamarket.cache.SingleFlight;
+import com.fleamarket.exception.OverloadedException;
+import com.fleamarket.filter.DatabasePermits;
+import com.fleamarket.model.dto.ProductView;
+import com.fleamarket.model.dto.SellerSummary;
+import com.fleamarket.model.dto.Tagged;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * Front of the hot read endpoints that lets concurrent requests for the same key share one
+ * database load. It is not transactional on purpose: callers that the cache answers, or that join
+ * a running load, never open a transaction or take a pooled connection. For the same reason these endpoints bypass the
+ * concurrency limiter, and only the load itself holds a database permit: callers that join it wait
+ * without one, so any number of them can share a load of a hot key.
+ */
+@Service
+public class CoalescingReadService implements MeterBinder {
+  private final SingleFlight<String, Tagged<List<ProductView>>> products =
+      new SingleFlight<>("products");
+  private final SingleFlight<String, String> productsEtags = new SingleFlight<>("products-etag");
+  private final SingleFlight<Long, SellerSummary> productSellers =
+      new SingleFlight<>("product-seller");
+  private SellerService sellerService;
+  private ProductService productService;
+  private DatabasePermits databasePermits;
+
+  @Autowired
+  public void setSellerService(SellerService sellerService) {
+    this.sellerService = sellerService;
+  }
+
+  @Autowired
+  public void setProductService(ProductService productService) {
+    this.productService = productService;
+  }
+
+  @Autowired
+  public void setDatabasePermits(DatabasePermits databasePermits) {
+    this.databasePermits = databasePermits;
+  }
+
+  /**
+   * Retrieves all products of a seller with their ETag, sharing the load with concurrent requests
+   * for the seller. The ETag is read by the same load, before the products, so a caller that joins
+   * a load started before a write never gets the ETag of the write with the products before it.
+   *
+   * @param seller Username of the seller
+   * @return ETag and IDs and names of the seller's products, not to be modified
+   * @throws OverloadedException if the load gets no database permit in time
+   * @see SellerService#getAllProducts(String)
+   */
+  public Tagged<List<ProductView>> getAllProducts(String seller) {
+    return products.load(
+        seller,
+        () ->
+            databasePermits.call(
+                () -> {
+                  String etag = sellerService.getProductsEtag(seller);
+                  return new Tagged<>(etag, List.copyOf(sellerService.getAllProducts(seller)));
+                }));
+  }
+
+  /**
+   * Builds the ETag of a seller's products, sharing the lookup with concurrent requests.
+   *
+   * @param seller Username of the seller
+   * @return Strong ETag of the seller's products
+   * @throws OverloadedException if the load gets no database permit in time
+   * @see SellerService#getProductsEtag(String)
+   */
+  public String getProductsEtag(String seller) {
+    return productsEtags.load(
+        seller, () -> databasePermits.call(() -> sellerService.getProductsEtag(seller)));
+  }
+
+  /**
+   * Retrieves the seller of a product. Cache hits, including products known not to exist, are
+   * answered without a permit or a transaction; only a miss is loaded, sharing the load with
+   * concurrent requests for the product.
+   *
+   * @param productId ID of the product
+   * @return Seller associated with the product
+   * @throws OverloadedException if the load gets no database permit in time
+   * @see ProductService#getSellerByProductId(Long)
+   */
+  public SellerSummary getSellerByProductId(Long productId) {
+    Optional<SellerSummary> cached = productService.getCachedSellerByProductId(productId);
+    if (cached.isPresent()) {
+      return cached.get();
+    }
+    return productSellers.load(
+        productId,
+        () -> databasePermits.call(() -> productService.getSellerByProductId(productId)));
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    products.bindTo(registry);
+    productsEtags.bindTo(registry);
+    productSellers.bindTo(registry);
+  }
+}
@@ -0,0 +1,163 @@
+package com.fleamarket.service;
+
+import com.fleamarket.dao.OutboxEventRepository;
+import com.fleamarket.model.dto.ChangeEvent;
+import com.fleamarket.model.dto.ChangeFeed;
+import com.fleamarket.model.entity.OutboxEvent;
+import com.fleamarket.model.entity.Product;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Records seller and product changes in the outbox table. Recording joins the transaction of the
+ * change itself, so an event exists exactly when its change was committed. The Server-Sent Events
+ * subscribers are fed from the same outbox once the publisher has positioned the events.
+ */
+@Service
+@Transactional(propagation = Propagation.MANDATORY)
+public class OutboxService {
+  private static final String INVALID_CURSOR_MESSAGE = "Cursor must not be negative";
+  private static final String INVALID_LIMIT_MESSAGE = "Change limit must be between 1 and %d";
+
+  private OutboxEventRepository outboxEventRepository;
+  private Clock clock = Clock.systemUTC();
+  private int defaultLimit = 100;
+  private int maxLimit = 1000;
+
+  @Autowired
+  public void setOutboxEventRepository(OutboxEventRepository outboxEventRepository) {
+    this.outboxEventRepository = outboxEventRepository;
+  }
+
+  public void setClock(Clock clock) {
+    this.clock = clock;
+  }
+
+  @Value("${fleamarket.changes.default-limit:100}")
+  public void setDefaultLimit(int defaultLimit) {
+    this.defaultLimit = defaultLimit;
+  }
+
+  @Value("${fleamarket.changes.max-limit:1000}")
+  public void setMaxLimit(int maxLimit) {
+    this.maxLimit = maxLimit;
+  }
+
+  public void sellerCreated(Long sellerId, String sellerName) {
+    record(ChangeEvent.Type.SELLER_CREATED, sellerId, sellerName, null, null, null);
+  }
+
+  public void sellerRenamed(Long sellerId, String oldName, String newName) {
+    record(ChangeEvent.Type.SELLER_RENAMED, sellerId, newName, null, null, oldName);
+  }
+
+  /** Records the deletion of a seller, which implies the deletion of all of their products. */
+  public void sellerDeleted(Long sellerId, String sellerName) {
+    record(ChangeEvent.Type.SELLER_DELETED, sellerId, sellerName, null, null, null);
+  }
+
+  public void productAdded(Long sellerId, String sellerName, Long productId, String product) {
+    record(ChangeEvent.Type.PRODUCT_ADDED, sellerId, sellerName, productId, product, null);
+  }
+
+  /** Records one event per product, inserted in JDBC batches together with the products. */
+  public void productsAdded(Long sellerId, String sellerName, List<Product> products) {
+    Instant now = clock.instant();
+    List<OutboxEvent> events =
+        products.stream()
+            .map(
+                product ->
+                    event(
+                        ChangeEvent.Type.PRODUCT_ADDED,
+                        sellerId,
+                        sellerName,
+                        product.getId(),
+                        product.getProductName(),
+                        null,
+                        now))
+            .toList();
+    outboxEventRepository.saveAll(events);
+  }
+
+  public void productRenamed(Long sellerId, String sellerName, String oldName, String newName) {
+    record(ChangeEvent.Type.PRODUCT_RENAMED, sellerId, sellerName, null, newName, oldName);
+  }
+
+  public void productDeleted(Long sellerId, String sellerName, Long productId, String product) {
+    record(ChangeEvent.Type.PRODUCT_DELETED, sellerId, sellerName, productId, product, null);
+  }
+
+  /**
+   * Retrieves the changes recorded after the cursor, oldest first. Consumers pass the returned
+   * cursor back to receive the next changes, so they can stay in sync without reloading listings.
+   * The cursor is a feed position, which the publisher hands out in commit order, so no change can
+   * appear behind a cursor that was already returned. Runs in a read-write transaction to be
+   * served by the primary, which is never behind the cursors it handed out.
+   *
+   * @param since Cursor returned with the previous changes, 0 to start from the beginning
+   * @param limit Maximum number of changes to return, or null for the configured default
+   * @return Changes and the cursor to continue from
+   * @throws IllegalArgumentException if the cursor or the limit is invalid
+   */
+  @Transactional
+  public ChangeFeed getChanges(long since, Integer limit) {
+    if (since < 0) {
+      throw new IllegalArgumentException(INVALID_CURSOR_MESSAGE);
+    }
+    int size = limit == null ? defaultLimit : limit;
+    if (size < 1 || size > maxLimit) {
+      throw new IllegalArgumentException(String.format(INVALID_LIMIT_MESSAGE, maxLimit));
+    }
+    List<ChangeEvent> events = outboxEventRepository.findChanges(since, PageRequest.of(0, size));
+    long cursor = events.isEmpty() ? since : events.get(events.size() - 1).getPosition();
+    return new ChangeFeed(events, cursor);
+  }
+
+  /**
+   * Retrieves the position of the latest change in the feed, read on the primary like the feed.
+   *
+   * @return Position of the latest change, 0 when there is none yet
+   */
+  @Transactional
+  public long getLastPosition() {
+    return outboxEventRepository.findLastPosition();
+  }
+
+  private void record(
+      ChangeEvent.Type type,
+      Long sellerId,
+      String sellerName,
+      Long productId,
+      String productName,
+      String previousName) {
+    OutboxEvent event =
+        event(type, sellerId, sellerName, productId, productName, previousName, clock.instant());
+    outboxEventRepository.save(event);
+  }
+
+  private static OutboxEvent event(
+      ChangeEvent.Type type,
+      Long sellerId,
+      String sellerName,
+      Long productId,
+      String productName,
+      String previousName,
+      Instant occurredAt) {
+    return OutboxEvent.builder()
+        .type(type)
+        .sellerId(sellerId)
+        .sellerName(sellerName)
+        .productId(productId)
+        .productName(productName)
+        .previousName(previousName)
+        .occurredAt(occurredAt)
+        .build();
+  }
+}
@@ -1,39 +1,170 @@
 package com.fleamarket.service;
 
+import com.fleamarket.cache.ProductSellerCache;
 import com.fleamarket.dao.ProductRepository;
 import com.fleamarket.exception.ProductNotFoundException;
-import com.fleamarket.model.entity.Product;
-import com.fleamarket.model.entity.Seller;
-import jakarta.transaction.Transactional;
+import com.fleamarket.model.dto.ProductSearchHit;
+import com.fleamarket.model.dto.ProductSearchPage;
+import com.fleamarket.model.dto.SellerSummary;
+import com.fleamarket.util.ContinuationTokens;
+import com.fleamarket.util.ETags;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.DigestUtils;
 
 @Service
-@Transactional
+@Transactional(readOnly = true)
 public class ProductService {
   private static final String PRODUCT_NOT_FOUND_MESSAGE = "Product with ID = \"%s\" doesn't exist";
+  private static final String INVALID_QUERY_MESSAGE =
+      "Search query must be between %d and %d characters long";
+  private static final String INVALID_LIMIT_MESSAGE = "Search limit must be between 1 and %d";
+  private static final int MIN_QUERY_LENGTH = 2;
+  private static final int MAX_QUERY_LENGTH = 100;
+  private static final float FIRST_PAGE_SCORE = 2f;
   private ProductRepository productRepository;
+  private ProductSellerCache productSellerCache;
+  private int defaultSearchLimit = 20;
+  private int maxSearchResults = 100;
+  private int maxSearchCandidates = 1000;
 
   @Autowired
   public void setProductRepository(ProductRepository productRepository) {
     this.productRepository = productRepository;
   }
 
+  @Autowired
+  public void setProductSellerCache(ProductSellerCache productSellerCache) {
+    this.productSellerCache = productSellerCache;
+  }
+
+  @Value("${fleamarket.search.default-limit:20}")
+  public void setDefaultSearchLimit(int defaultSearchLimit) {
+    this.defaultSearchLimit = defaultSearchLimit;
+  }
+
+  @Value("${fleamarket.search.max-results:100}")
+  public void setMaxSearchResults(int maxSearchResults) {
+    this.maxSearchResults = maxSearchResults;
+  }
+
+  @Value("${fleamarket.search.max-candidates:1000}")
+  public void setMaxSearchCandidates(int maxSearchCandidates) {
+    this.maxSearchCandidates = maxSearchCandidates;
+  }
+
+  /**
+   * Looks up the seller of a product in the product-seller cache only. Runs without a transaction,
+   * so a hit never borrows a database connection.
+   *
+   * @param productId ID of the product
+   * @return Cached seller, empty on a cache miss
+   * @throws ProductNotFoundException if the product was recently looked up and did not exist
+   */
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
+  public Optional<SellerSummary> getCachedSellerByProductId(Long productId) {
+    Optional<SellerSummary> cached = productSellerCache.get(productId);
+    if (cached.isEmpty() && productSellerCache.isUnknown(productId)) {
+      throw new ProductNotFoundException(String.format(PRODUCT_NOT_FOUND_MESSAGE, productId));
+    }
+    return cached;
+  }
+
   /**
-   * Retrieves the seller associated with a product given its ID.
+   * Retrieves the seller associated with a product given its ID. Answers from the product-seller
+   * cache when possible, and remembers IDs that do not exist for a short time so repeated probes
+   * of unknown IDs do not reach the database. Misses are loaded on the primary: a replica that lags
+   * behind could hand back a seller that was just renamed, or miss a product that was just added,
+   * and the cache would keep that answer.
    *
    * @param productId ID of the product to retrieve the seller for
    * @return Seller associated with the product
    * @throws ProductNotFoundException if the product with the given ID is not found
+   * @see #getCachedSellerByProductId(Long)
    */
-  public Seller getSellerByProductId(Long productId) {
-    Product productOptional =
-        productRepository
-            .findProductById(productId)
-            .orElseThrow(
-                () ->
-                    new ProductNotFoundException(
-                        String.format(PRODUCT_NOT_FOUND_MESSAGE, productId)));
-    return productOptional.getSeller();
+  @Transactional
+  public SellerSummary getSellerByProductId(Long productId) {
+    Optional<SellerSummary> cached = getCachedSellerByProductId(productId);
+    if (cached.isPresent()) {
+      return cached.get();
+    }
+    long stamp = productSellerCache.stamp();
+    Optional<SellerSummary> seller = productRepository.findSellerSummaryByProductId(productId);
+    if (seller.isEmpty()) {
+      productSellerCache.putUnknown(productId);
+      throw new ProductNotFoundException(String.format(PRODUCT_NOT_FOUND_MESSAGE, productId));
+    }
+    productSellerCache.put(productId, seller.get(), stamp);
+    return seller.get();
+  }
+
+  /**
+   * Builds the ETag of a product's seller from the seller's ID and a digest of its username, so the
+   * tag changes when the product moves to a renamed seller.
+   *
+   * @param productId ID of the product
+   * @param seller Seller of the product
+   * @return Strong ETag of the product's seller
+   */
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
+  public String getSellerEtag(Long productId, SellerSummary seller) {
+    String nameDigest =
+        DigestUtils.md5DigestAsHex(seller.getSellerName().getBytes(StandardCharsets.UTF_8));
+    return ETags.of(productId, seller.getId(), nameDigest);
+  }
+
+  /**
+   * Searches products of all sellers by name. Matches names that start with the query or are
+   * similar to it, best matches first. Only the configured number of closest matches is ranked,
+   * so paging stops there.
+   *
+   * @param query Text to search for
+   * @param continuationToken Token returned with the previous page, or null for the first page
+   * @param limit Maximum number of hits, or null for the configured default
+   * @return Page of hits with the token for the next page (null on the last page)
+   * @throws IllegalArgumentException if the query, the limit or the token is invalid
+   */
+  public ProductSearchPage searchProducts(String query, String continuationToken, Integer limit) {
+    String text = query == null ? "" : query.trim();
+    if (text.length() < MIN_QUERY_LENGTH || text.length() > MAX_QUERY_LENGTH) {
+      throw new IllegalArgumentException(
+          String.format(INVALID_QUERY_MESSAGE, MIN_QUERY_LENGTH, MAX_QUERY_LENGTH));
+    }
+    int size = limit == null ? defaultSearchLimit : limit;
+    if (size < 1 || size > maxSearchResults) {
+      throw new IllegalArgumentException(String.format(INVALID_LIMIT_MESSAGE, maxSearchResults));
+    }
+    float afterScore = FIRST_PAGE_SCORE;
+    long afterId = 0L;
+    if (continuationToken != null && !continuationToken.isBlank()) {
+      String[] position = ContinuationTokens.decode(continuationToken).split(":", 2);
+      try {
+        afterScore = Float.parseFloat(position[0]);
+        afterId = Long.parseLong(position[1]);
+      } catch (NumberFormatException | ArrayIndexOutOfBoundsException ex) {
+        throw ContinuationTokens.invalid(continuationToken);
+      }
+    }
+
+    List<ProductSearchHit> hits =
+        productRepository.searchProducts(
+            text, escapeLike(text) + "%", afterScore, afterId, maxSearchCandidates, size + 1);
+    if (hits.size() <= size) {
+      return new ProductSearchPage(hits, null);
+    }
+    List<ProductSearchHit> page = hits.subList(0, size);
+    ProductSearchHit last = page.get(size - 1);
+    return new ProductSearchPage(
+        page, ContinuationTokens.encode(last.getScore() + ":" + last.getId()));
+  }
+
+  private static String escapeLike(String text) {
+    return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
   }
 }
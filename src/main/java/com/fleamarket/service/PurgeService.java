@@ -0,0 +1,125 @@
+package com.fleamarket.service;
+
+import com.fleamarket.dao.OutboxEventRepository;
+import com.fleamarket.dao.ProductRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Removes soft-deleted products for good once the retention period has passed, and published
+ * outbox events once the change feed no longer has to serve them. The purge runs on a cron
+ * schedule during off-peak hours and deletes a bounded number of small batches per run, each in
+ * its own transaction, so it never holds locks for long. It also restarts failed seller deletion
+ * jobs.
+ */
+@Component
+@Slf4j
+public class PurgeService {
+  private final ProductRepository productRepository;
+  private final OutboxEventRepository outboxEventRepository;
+  private final SellerDeletionService sellerDeletionService;
+  private final TransactionTemplate transactionTemplate;
+  private final Duration retention;
+  private final Duration outboxRetention;
+  private final int batchSize;
+  private final int maxBatchesPerRun;
+  private final Counter purged;
+  private final Counter purgedEvents;
+  private final Counter failures;
+
+  @Autowired
+  public PurgeService(
+      ProductRepository productRepository,
+      OutboxEventRepository outboxEventRepository,
+      SellerDeletionService sellerDeletionService,
+      PlatformTransactionManager transactionManager,
+      MeterRegistry meterRegistry,
+      @Value("${fleamarket.purge.retention:1d}") Duration retention,
+      @Value("${fleamarket.outbox.retention:7d}") Duration outboxRetention,
+      @Value("${fleamarket.purge.batch-size:1000}") int batchSize,
+      @Value("${fleamarket.purge.max-batches-per-run:50}") int maxBatchesPerRun) {
+    this.productRepository = productRepository;
+    this.outboxEventRepository = outboxEventRepository;
+    this.sellerDeletionService = sellerDeletionService;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.retention = retention;
+    this.outboxRetention = outboxRetention;
+    this.batchSize = batchSize;
+    this.maxBatchesPerRun = maxBatchesPerRun;
+    this.purged = meterRegistry.counter("fleamarket.purge.products");
+    this.purgedEvents = meterRegistry.counter("fleamarket.purge.outbox.events");
+    this.failures = meterRegistry.counter("fleamarket.purge.failures");
+  }
+
+  @Scheduled(
+      cron = "${fleamarket.purge.cron:0 */5 2-5 * * *}",
+      zone = "${fleamarket.purge.zone:UTC}")
+  public void purge() {
+    Instant now = Instant.now();
+    Instant cutoff = now.minus(retention);
+    try {
+      runBatches(() -> purgeBatch(cutoff));
+    } catch (RuntimeException ex) {
+      failures.increment();
+      log.warn("Purging deleted products failed, retrying on the next run", ex);
+    }
+    Instant outboxCutoff = now.minus(outboxRetention);
+    try {
+      runBatches(() -> purgeOutboxBatch(outboxCutoff));
+    } catch (RuntimeException ex) {
+      failures.increment();
+      log.warn("Purging published outbox events failed, retrying on the next run", ex);
+    }
+    try {
+      int retried = sellerDeletionService.retryFailed();
+      if (retried > 0) {
+        log.info("Retrying {} failed seller deletion jobs", retried);
+      }
+    } catch (RuntimeException ex) {
+      failures.increment();
+      log.warn("Retrying failed seller deletion jobs failed", ex);
+    }
+  }
+
+  /** Util function, runs batches in transactions of their own until one comes back short. */
+  private void runBatches(Supplier<Integer> batch) {
+    for (int run = 0; run < maxBatchesPerRun; run++) {
+      Integer count = transactionTemplate.execute(status -> batch.get());
+      if (count == null || count < batchSize) {
+        return;
+      }
+    }
+  }
+
+  private int purgeBatch(Instant cutoff) {
+    List<Long> ids = productRepository.findPurgeableProductIds(cutoff, batchSize);
+    if (ids.isEmpty()) {
+      return 0;
+    }
+    int deleted = productRepository.purgeProductsByIds(ids);
+    purged.increment(deleted);
+    return ids.size();
+  }
+
+  private int purgeOutboxBatch(Instant cutoff) {
+    List<Long> ids =
+        outboxEventRepository.findPublishedBefore(cutoff, PageRequest.of(0, batchSize));
+    if (ids.isEmpty()) {
+      return 0;
+    }
+    purgedEvents.increment(outboxEventRepository.deleteByIds(ids));
+    return ids.size();
+  }
+}
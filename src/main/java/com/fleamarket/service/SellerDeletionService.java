@@ -0,0 +1,262 @@
+package com.fleamarket.service;
+
+import com.fleamarket.cache.ProductSellerCache;
+import com.fleamarket.dao.ProductRepository;
+import com.fleamarket.dao.SellerDeletionJobRepository;
+import com.fleamarket.dao.SellerRepository;
+import com.fleamarket.exception.DeletionJobNotFoundException;
+import com.fleamarket.model.dto.SellerDeletionStatus;
+import com.fleamarket.model.entity.SellerDeletionJob;
+import com.fleamarket.util.TransactionHooks;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Clock;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Removes deleted sellers in the background. The seller is only marked as deleted in the request,
+ * which hides it from every read; a job then deletes its products in chunks, each in a short
+ * transaction of its own, and finally the seller row. Progress is stored with the job after every
+ * chunk, and jobs that were interrupted by a restart are picked up again when the application
+ * starts; failed jobs are also retried by the purger. Every step can be repeated safely, so a job
+ * that runs twice does no harm. The job works with native statements, since the seller and its
+ * products are hidden from entity queries once they are marked as deleted.
+ */
+@Service
+@Slf4j
+public class SellerDeletionService {
+  private static final String JOB_NOT_FOUND_MESSAGE = "Deletion job %d doesn't exist";
+  private static final int MAX_ERROR_LENGTH = 1000;
+
+  private SellerRepository sellerRepository;
+  private ProductRepository productRepository;
+  private SellerDeletionJobRepository sellerDeletionJobRepository;
+  private ProductSellerCache productSellerCache;
+  private SuggestionService suggestionService;
+  private TransactionTemplate transactionTemplate;
+  private Executor executor;
+  private Clock clock = Clock.systemUTC();
+  private int chunkSize = 1000;
+  private int threads = 1;
+
+  @Autowired
+  public void setSellerRepository(SellerRepository sellerRepository) {
+    this.sellerRepository = sellerRepository;
+  }
+
+  @Autowired
+  public void setProductRepository(ProductRepository productRepository) {
+    this.productRepository = productRepository;
+  }
+
+  @Autowired
+  public void setSellerDeletionJobRepository(
+      SellerDeletionJobRepository sellerDeletionJobRepository) {
+    this.sellerDeletionJobRepository = sellerDeletionJobRepository;
+  }
+
+  @Autowired
+  public void setProductSellerCache(ProductSellerCache productSellerCache) {
+    this.productSellerCache = productSellerCache;
+  }
+
+  @Autowired
+  public void setSuggestionService(SuggestionService suggestionService) {
+    this.suggestionService = suggestionService;
+  }
+
+  @Autowired
+  public void setTransactionManager(PlatformTransactionManager transactionManager) {
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+  }
+
+  public void setExecutor(Executor executor) {
+    this.executor = executor;
+  }
+
+  public void setClock(Clock clock) {
+    this.clock = clock;
+  }
+
+  @Value("${fleamarket.deletion.chunk-size:1000}")
+  public void setChunkSize(int chunkSize) {
+    this.chunkSize = chunkSize;
+  }
+
+  @Value("${fleamarket.deletion.threads:1}")
+  public void setThreads(int threads) {
+    this.threads = threads;
+  }
+
+  @PostConstruct
+  public void init() {
+    if (executor == null) {
+      executor = Executors.newFixedThreadPool(threads);
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    if (executor instanceof ExecutorService executorService) {
+      executorService.shutdownNow();
+    }
+  }
+
+  /**
+   * Creates the deletion job of a seller that has just been marked as deleted. The job starts once
+   * the current transaction commits. The total is taken from the seller's product count, so the
+   * request does not count the products.
+   *
+   * @param sellerId ID of the deleted seller
+   * @param sellerName Username of the deleted seller
+   * @return Status of the new job
+   */
+  @Transactional(propagation = Propagation.MANDATORY)
+  public SellerDeletionStatus start(Long sellerId, String sellerName) {
+    SellerDeletionJob job = new SellerDeletionJob();
+    job.setSellerId(sellerId);
+    job.setSellerName(sellerName);
+    job.setStatus(SellerDeletionStatus.Status.RUNNING);
+    job.setTotalProducts(sellerRepository.findProductCount(sellerId).orElse(0L));
+    job.setCreatedAt(clock.instant());
+    job.setUpdatedAt(job.getCreatedAt());
+    sellerDeletionJobRepository.save(job);
+    Long jobId = job.getId();
+    TransactionHooks.afterCommit(() -> executor.execute(() -> run(jobId, true)));
+    return job.toStatus();
+  }
+
+  /**
+   * Retrieves the progress of a deletion job.
+   *
+   * @param jobId ID of the job
+   * @return Status and progress of the job
+   * @throws DeletionJobNotFoundException if the job does not exist
+   */
+  @Transactional(readOnly = true)
+  public SellerDeletionStatus getStatus(Long jobId) {
+    return sellerDeletionJobRepository
+        .findById(jobId)
+        .map(SellerDeletionJob::toStatus)
+        .orElseThrow(
+            () -> new DeletionJobNotFoundException(String.format(JOB_NOT_FOUND_MESSAGE, jobId)));
+  }
+
+  /**
+   * Restarts the jobs that were running or had failed when the application stopped. Their products
+   * are already missing from the rebuilt suggestion index, so resumed jobs leave it alone.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void resumeUnfinished() {
+    List<Long> jobIds =
+        transactionTemplate.execute(
+            status ->
+                sellerDeletionJobRepository.findJobIdsByStatusNot(
+                    SellerDeletionStatus.Status.COMPLETED));
+    if (jobIds.isEmpty()) {
+      return;
+    }
+    log.info("Resuming {} unfinished seller deletion jobs", jobIds.size());
+    jobIds.forEach(jobId -> executor.execute(() -> run(jobId, false)));
+  }
+
+  /**
+   * Runs the failed jobs again, without touching the suggestion index.
+   *
+   * @return Number of jobs restarted
+   */
+  public int retryFailed() {
+    List<Long> jobIds =
+        transactionTemplate.execute(
+            status ->
+                sellerDeletionJobRepository.findJobIdsByStatus(SellerDeletionStatus.Status.FAILED));
+    jobIds.forEach(jobId -> executor.execute(() -> run(jobId, false)));
+    return jobIds.size();
+  }
+
+  /**
+   * Deletes the products of the job's seller chunk by chunk, then the seller. A failure marks the
+   * job as failed; it is retried by the purger and on the next start.
+   *
+   * @param jobId ID of the job
+   * @param updateSuggestions Whether to remove the deleted names from the suggestion index
+   */
+  public void run(Long jobId, boolean updateSuggestions) {
+    SellerDeletionJob job =
+        transactionTemplate.execute(
+            status -> sellerDeletionJobRepository.findById(jobId).orElse(null));
+    if (job == null || job.getStatus() == SellerDeletionStatus.Status.COMPLETED) {
+      return;
+    }
+    try {
+      if (job.getStatus() == SellerDeletionStatus.Status.FAILED) {
+        updateStatus(jobId, SellerDeletionStatus.Status.RUNNING, null);
+      }
+      while (transactionTemplate.execute(status -> deleteChunk(job, updateSuggestions)) > 0) {
+        log.debug("Deleted a chunk of products of seller {}", job.getSellerId());
+      }
+      transactionTemplate.executeWithoutResult(
+          status -> {
+            sellerRepository.deleteSellerById(job.getSellerId());
+            sellerDeletionJobRepository.updateStatus(
+                jobId,
+                SellerDeletionStatus.Status.COMPLETED,
+                null,
+                clock.instant(),
+                clock.instant());
+          });
+      log.info("Seller {} deleted by job {}", job.getSellerName(), jobId);
+    } catch (RuntimeException ex) {
+      log.error("Deletion job {} failed: {}", jobId, ex.getMessage(), ex);
+      String error = String.valueOf(ex.getMessage());
+      updateStatus(
+          jobId,
+          SellerDeletionStatus.Status.FAILED,
+          error.substring(0, Math.min(error.length(), MAX_ERROR_LENGTH)));
+    }
+  }
+
+  private void updateStatus(Long jobId, SellerDeletionStatus.Status status, String error) {
+    transactionTemplate.executeWithoutResult(
+        transaction ->
+            sellerDeletionJobRepository.updateStatus(
+                jobId, status, error, null, clock.instant()));
+  }
+
+  /**
+   * Util function, deletes the next chunk of products of the job's seller
+   *
+   * @return Number of products in the chunk, 0 once the seller has none left
+   */
+  private int deleteChunk(SellerDeletionJob job, boolean updateSuggestions) {
+    List<Long> ids = productRepository.findProductIdChunk(job.getSellerId(), chunkSize);
+    if (ids.isEmpty()) {
+      return 0;
+    }
+    // Products deleted one by one earlier already left the index and the product count, so only
+    // live products are read and counted
+    List<String> names =
+        updateSuggestions ? productRepository.findProductNamesByIds(ids) : List.of();
+    long live = updateSuggestions ? names.size() : productRepository.countProductsByIds(ids);
+    productRepository.purgeProductsByIds(ids);
+    sellerDeletionJobRepository.addDeletedProducts(job.getId(), live, clock.instant());
+    productSellerCache.evictProducts(ids);
+    if (updateSuggestions) {
+      suggestionService.productsRemoved(job.getSellerId(), names);
+    }
+    return ids.size();
+  }
+}
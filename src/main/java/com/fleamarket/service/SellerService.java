@@ -1,19 +1,67 @@
 package com.fleamarket.service;
 
+import com.fleamarket.cache.ProductSellerCache;
+import com.fleamarket.cache.SellerCache;
+import com.fleamarket.dao.CatalogStampRepository;
 import com.fleamarket.dao.ProductRepository;
 import com.fleamarket.dao.SellerRepository;
+import com.fleamarket.exception.ListingDisabledException;
 import com.fleamarket.exception.ProductNotFoundException;
 import com.fleamarket.exception.ProductTakenException;
 import com.fleamarket.exception.SellerNotFoundException;
 import com.fleamarket.exception.SellerTakenException;
+import com.fleamarket.model.dto.BulkAddItem;
+import com.fleamarket.model.dto.BulkAddResult;
+import com.fleamarket.model.dto.ProductView;
+import com.fleamarket.model.dto.SellerDeletionStatus;
+import com.fleamarket.model.dto.SellerPage;
+import com.fleamarket.model.dto.SellerProductCount;
+import com.fleamarket.model.dto.SellerSummary;
+import com.fleamarket.model.entity.CatalogStamp;
 import com.fleamarket.model.entity.Product;
 import com.fleamarket.model.entity.Seller;
-import jakarta.transaction.Transactional;
+import com.fleamarket.util.ContinuationTokens;
+import com.fleamarket.util.ETags;
+import com.fleamarket.util.TransactionHooks;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+/**
+ * Seller and product operations. Seller writes rely on the unique constraint of the seller table:
+ * the upfront existence checks only give a friendly answer in the common case, while concurrent
+ * writers that slip past them are stopped by the database. Renames and deletes are single
+ * statements whose row counts tell whether the target still exists. Product additions and renames
+ * start with the statement that bumps the seller's catalog version, so the product writes of one
+ * seller hold its row lock from their existence check to the commit and never collide on a name;
+ * every product write already held that lock until the commit. Queries run in read-only transactions, which skip
+ * dirty checking and are served by the read replica when one is configured. Every write that
+ * changes a listing also increments that listing's stamp, from which the listing ETags are built;
+ * the sellers stamp is incremented after the commit, so that seller writes do not queue on it.
+ * Product writes update the seller's product count in the same statement as its catalog version.
+ */
 @Service
+@Slf4j
 @Transactional
 public class SellerService {
 
@@ -23,9 +71,33 @@ public class SellerService {
   private static final String SELLER_TAKEN_MESSAGE = "Name \"%s\" is already taken (((";
   private static final String PRODUCT_ALREADY_EXIST_MESSAGE = "Product %s already exists(((((";
   private static final String PRODUCT_NOT_FOUND_MESSAGE = "Product %s doesn't exist(((((";
+  private static final String INVALID_PAGE_SIZE_MESSAGE = "Page size must be between 1 and %d";
+  private static final String INVALID_STATS_LIMIT_MESSAGE = "Limit must be between 1 and %d";
+  private static final String BULK_TOO_LARGE_MESSAGE = "At most %d products can be added at once";
+  private static final String BULK_CONFLICT_MESSAGE =
+      "Products of seller \"%s\" were changed concurrently, please retry";
+  private static final int BULK_LOOKUP_CHUNK_SIZE = 1000;
+  private static final String LISTING_DISABLED_MESSAGE =
+      "Unbounded seller listing is disabled, use /sellers/getSellersPage instead";
 
   private SellerRepository sellerRepository;
   private ProductRepository productRepository;
+  private CatalogStampRepository catalogStampRepository;
+  private SellerCache sellerCache;
+  private ProductSellerCache productSellerCache;
+  private SuggestionService suggestionService;
+  private OutboxService outboxService;
+  private SellerDeletionService sellerDeletionService;
+  private EntityManager entityManager;
+  private TransactionTemplate stampTransaction;
+  private int defaultPageSize = 50;
+  private int maxPageSize = 500;
+  private boolean unboundedListingEnabled;
+  private int maxBulkSize = 100_000;
+  private int bulkInsertChunkSize = 50;
+  private boolean replicaEnabled;
+  private int defaultStatsLimit = 10;
+  private int maxStatsLimit = 100;
 
   @Autowired
   public void setProductRepository(ProductRepository productRepository) {
@@ -37,24 +109,212 @@ public class SellerService {
     this.sellerRepository = sellerRepository;
   }
 
+  @Autowired
+  public void setCatalogStampRepository(CatalogStampRepository catalogStampRepository) {
+    this.catalogStampRepository = catalogStampRepository;
+  }
+
+  @Autowired
+  public void setSellerCache(SellerCache sellerCache) {
+    this.sellerCache = sellerCache;
+  }
+
+  @Autowired
+  public void setProductSellerCache(ProductSellerCache productSellerCache) {
+    this.productSellerCache = productSellerCache;
+  }
+
+  @Autowired
+  public void setSuggestionService(SuggestionService suggestionService) {
+    this.suggestionService = suggestionService;
+  }
+
+  @Autowired
+  public void setOutboxService(OutboxService outboxService) {
+    this.outboxService = outboxService;
+  }
+
+  @Autowired
+  public void setSellerDeletionService(SellerDeletionService sellerDeletionService) {
+    this.sellerDeletionService = sellerDeletionService;
+  }
+
+  @Autowired
+  public void setTransactionManager(PlatformTransactionManager transactionManager) {
+    this.stampTransaction = new TransactionTemplate(transactionManager);
+    this.stampTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+  }
+
+  @PersistenceContext
+  public void setEntityManager(EntityManager entityManager) {
+    this.entityManager = entityManager;
+  }
+
+  @Value("${fleamarket.sellers.page-size:50}")
+  public void setDefaultPageSize(int defaultPageSize) {
+    this.defaultPageSize = defaultPageSize;
+  }
+
+  @Value("${fleamarket.sellers.max-page-size:500}")
+  public void setMaxPageSize(int maxPageSize) {
+    this.maxPageSize = maxPageSize;
+  }
+
+  @Value("${fleamarket.sellers.unbounded-listing-enabled:false}")
+  public void setUnboundedListingEnabled(boolean unboundedListingEnabled) {
+    this.unboundedListingEnabled = unboundedListingEnabled;
+  }
+
+  @Value("${fleamarket.products.max-bulk-size:100000}")
+  public void setMaxBulkSize(int maxBulkSize) {
+    this.maxBulkSize = maxBulkSize;
+  }
+
+  @Value("${fleamarket.datasource.replica.url:}")
+  public void setReplicaUrl(String replicaUrl) {
+    this.replicaEnabled = !replicaUrl.isBlank();
+  }
+
+  @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+  public void setBulkInsertChunkSize(int bulkInsertChunkSize) {
+    this.bulkInsertChunkSize = bulkInsertChunkSize;
+  }
+
+  @Value("${fleamarket.stats.default-limit:10}")
+  public void setDefaultStatsLimit(int defaultStatsLimit) {
+    this.defaultStatsLimit = defaultStatsLimit;
+  }
+
+  @Value("${fleamarket.stats.max-limit:100}")
+  public void setMaxStatsLimit(int maxStatsLimit) {
+    this.maxStatsLimit = maxStatsLimit;
+  }
+
+  /**
+   * Retrieves all sellers from the database. Loads the whole table, so it is only available when
+   * {@code fleamarket.sellers.unbounded-listing-enabled} is switched on.
+   *
+   * @return IDs and names of all sellers
+   * @throws ListingDisabledException if unbounded listing is not enabled
+   */
+  @Transactional(readOnly = true)
+  public List<SellerSummary> getAllSellers() {
+    if (!unboundedListingEnabled) {
+      throw new ListingDisabledException(LISTING_DISABLED_MESSAGE);
+    }
+    return sellerRepository.findAllSellerSummaries();
+  }
+
+  /**
+   * Builds the ETag of the seller listings from the sellers stamp, without reading any seller. The
+   * stamp must be read before the listing: a change committed in between then makes the tag older
+   * than the body, which only costs the client one more full response.
+   *
+   * @return Strong ETag of the seller listings
+   */
+  @Transactional(readOnly = true)
+  public String getSellersEtag() {
+    long version = catalogStampRepository.findVersion(CatalogStamp.SELLERS).orElse(0L);
+    return ETags.of(CatalogStamp.SELLERS, version);
+  }
+
+  /**
+   * Builds the ETag of the unbounded seller listing.
+   *
+   * @return Strong ETag of the seller listings
+   * @throws ListingDisabledException if unbounded listing is not enabled
+   */
+  @Transactional(readOnly = true)
+  public String getAllSellersEtag() {
+    if (!unboundedListingEnabled) {
+      throw new ListingDisabledException(LISTING_DISABLED_MESSAGE);
+    }
+    return getSellersEtag();
+  }
+
+  /**
+   * Builds the ETag of a seller's product listing from the seller's catalog version, without
+   * reading any product. Like {@link #getSellersEtag()}, it must be read before the listing.
+   *
+   * @param seller Username of the seller
+   * @return Strong ETag of the seller's products
+   * @throws SellerNotFoundException if the seller with the given username is not found
+   */
+  @Transactional(readOnly = true)
+  public String getProductsEtag(String seller) {
+    SellerSummary sellerSummary = findSellerSummary(seller);
+    long version =
+        sellerRepository
+            .findCatalogVersion(sellerSummary.getId())
+            .orElseThrow(() -> sellerNotFound(seller));
+    return ETags.of(sellerSummary.getId(), version);
+  }
+
+  /**
+   * Retrieves one page of sellers ordered by ID. Seeks past the ID encoded in the continuation
+   * token instead of using an offset, so every page costs the same regardless of its position.
+   *
+   * @param continuationToken Token returned with the previous page, or null for the first page
+   * @param pageSize Number of sellers to return, or null for the configured default
+   * @return Page of sellers with the token for the next page (null on the last page)
+   * @throws IllegalArgumentException if the token or the page size is invalid
+   */
+  @Transactional(readOnly = true)
+  public SellerPage getSellerPage(String continuationToken, Integer pageSize) {
+    int size = pageSize == null ? defaultPageSize : pageSize;
+    if (size < 1 || size > maxPageSize) {
+      throw new IllegalArgumentException(String.format(INVALID_PAGE_SIZE_MESSAGE, maxPageSize));
+    }
+    long afterId = decodeToken(continuationToken);
+    List<SellerSummary> sellers =
+        sellerRepository.findSellerPage(afterId, PageRequest.of(0, size + 1));
+    if (sellers.size() <= size) {
+      return new SellerPage(sellers, null);
+    }
+    List<SellerSummary> page = sellers.subList(0, size);
+    String lastId = page.get(size - 1).getId().toString();
+    return new SellerPage(page, ContinuationTokens.encode(lastId));
+  }
+
   /**
-   * Retrieves all sellers from the database.
+   * Retrieves the sellers with the most products. Reads the maintained product counts through the
+   * product count index, so the cost depends on the limit and not on the number of products.
    *
-   * @return List of all sellers
+   * @param limit Number of sellers to return, or null for the configured default
+   * @return Sellers with their product counts, largest catalogue first
+   * @throws IllegalArgumentException if the limit is out of range
    */
-  public List<Seller> getAllSellers() {
-    return sellerRepository.findAll();
+  @Transactional(readOnly = true)
+  public List<SellerProductCount> getTopSellers(Integer limit) {
+    int size = limit == null ? defaultStatsLimit : limit;
+    if (size < 1 || size > maxStatsLimit) {
+      throw new IllegalArgumentException(String.format(INVALID_STATS_LIMIT_MESSAGE, maxStatsLimit));
+    }
+    return sellerRepository.findTopSellersByProductCount(PageRequest.of(0, size));
   }
 
   /**
-   * Deletes a seller by their username.
+   * Deletes a seller by their username. The seller is only marked as deleted here, which hides it
+   * and its products from every read right away; the products and the seller row are removed by a
+   * background job in short chunked transactions. The username is free for a new seller as soon as
+   * this transaction commits, since only live sellers are covered by the unique index on names.
    *
    * @param username Username of the seller to delete
+   * @return Status of the deletion job
    * @throws SellerNotFoundException if the seller with the given username is not found
    */
-  public void deleteSeller(String username) {
-    Seller sellerOptional = findSeller(username);
-    sellerRepository.delete(sellerOptional);
+  public SellerDeletionStatus deleteSeller(String username) {
+    SellerSummary sellerSummary = findSellerSummary(username);
+    if (sellerRepository.markDeleted(sellerSummary.getId(), Instant.now()) == 0) {
+      sellerCache.evict(username);
+      throw sellerNotFound(username);
+    }
+    sellerCache.evict(username);
+    productSellerCache.evictSeller(sellerSummary.getId());
+    bumpSellersStamp();
+    outboxService.sellerDeleted(sellerSummary.getId(), username);
+    suggestionService.sellerRemoved(username);
+    return sellerDeletionService.start(sellerSummary.getId(), username);
   }
 
   /**
@@ -68,16 +328,25 @@ public class SellerService {
     if (username.trim().isEmpty()) {
       throw new IllegalArgumentException(SELLER_EMPTY_MESSAGE);
     }
-    if (sellerRepository.existsSellerBySellerName(username).booleanValue()) {
-      throw new SellerTakenException(String.format(SELLER_TAKEN_MESSAGE, username));
+    if (isSellerNameTaken(username)) {
+      throw sellerTaken(username);
     }
     Seller seller = new Seller();
     seller.setSellerName(username);
-    sellerRepository.save(seller);
+    try {
+      sellerRepository.saveAndFlush(seller);
+    } catch (DataIntegrityViolationException ex) {
+      throw translate(ex, Seller.NAME_CONSTRAINT, () -> sellerTaken(username));
+    }
+    SellerSummary created = new SellerSummary(seller.getId(), username);
+    bumpSellersStamp();
+    outboxService.sellerCreated(seller.getId(), username);
+    TransactionHooks.afterCommit(() -> sellerCache.put(created));
+    suggestionService.sellerAdded(username);
   }
 
   /**
-   * Changes the username of an existing seller.
+   * Changes the username of an existing seller with a single update statement.
    *
    * @param oldUsername Current username of the seller
    * @param newUsername New username to change to
@@ -86,28 +355,69 @@ public class SellerService {
    * @throws SellerTakenException if the new username is already taken
    */
   public void changeSellerName(String oldUsername, String newUsername) {
-    Seller sellerOptional = findSeller(oldUsername);
+    SellerSummary sellerSummary = findSellerSummary(oldUsername);
     if (newUsername.trim().isEmpty()) {
       throw new IllegalArgumentException(SELLER_EMPTY_MESSAGE);
     }
-    if (sellerRepository.existsSellerBySellerName(newUsername).booleanValue()) {
-      throw new SellerTakenException(String.format(SELLER_TAKEN_MESSAGE, newUsername));
+    if (isSellerNameTaken(newUsername)) {
+      throw sellerTaken(newUsername);
     }
 
-    sellerOptional.setSellerName(newUsername);
-    sellerRepository.save(sellerOptional);
+    int renamed;
+    try {
+      renamed = sellerRepository.renameSeller(sellerSummary.getId(), newUsername);
+    } catch (DataIntegrityViolationException ex) {
+      throw translate(ex, Seller.NAME_CONSTRAINT, () -> sellerTaken(newUsername));
+    }
+    sellerCache.evict(oldUsername);
+    if (renamed == 0) {
+      throw sellerNotFound(oldUsername);
+    }
+    sellerCache.evict(newUsername);
+    productSellerCache.evictSeller(sellerSummary.getId());
+    bumpSellersStamp();
+    outboxService.sellerRenamed(sellerSummary.getId(), oldUsername, newUsername);
+    suggestionService.sellerRenamed(oldUsername, newUsername);
   }
 
   /**
-   * Retrieves all products associated with a seller.
+   * Retrieves all products associated with a seller. Only the product columns are selected, the
+   * seller itself is resolved through the seller cache.
    *
    * @param seller Username of the seller to retrieve products for
-   * @return List of products associated with the seller
+   * @return IDs and names of the seller's products
    * @throws SellerNotFoundException if the seller with the given username is not found
    */
-  public List<Product> getAllProducts(String seller) {
-    Seller sellerOptional = findSeller(seller);
-    return sellerOptional.getProducts();
+  @Transactional(readOnly = true)
+  public List<ProductView> getAllProducts(String seller) {
+    return productRepository.findProductViewsBySellerId(findSellerSummary(seller).getId());
+  }
+
+  /**
+   * Resolves the ID of a seller.
+   *
+   * @param seller Username of the seller
+   * @return ID of the seller
+   * @throws SellerNotFoundException if the seller with the given username is not found
+   */
+  @Transactional(readOnly = true)
+  public Long getSellerId(String seller) {
+    return findSellerSummary(seller).getId();
+  }
+
+  /**
+   * Passes every product of a seller to the consumer as rows are read from the database. Rows are
+   * fetched in chunks and never collected into a list, so memory use does not depend on the size
+   * of the catalogue.
+   *
+   * @param sellerId ID of the seller to export products for
+   * @param consumer Callback invoked for each product in ID order
+   */
+  @Transactional(readOnly = true)
+  public void exportProducts(Long sellerId, Consumer<ProductView> consumer) {
+    try (Stream<ProductView> products = productRepository.streamProductsBySellerId(sellerId)) {
+      products.forEach(consumer);
+    }
   }
 
   /**
@@ -120,23 +430,120 @@ public class SellerService {
    * @throws SellerNotFoundException if the seller with the given username is not found
    */
   public void addProductToSeller(String product, String seller) {
-    Seller sellerOptional = findSeller(seller);
+    SellerSummary sellerSummary = findSellerSummary(seller);
     if (product.trim().isEmpty()) {
       throw new IllegalArgumentException(PRODUCT_EMPTY_MESSAGE);
     }
-    if (sellerOptional.getProduct(product) != null) {
-      throw new ProductTakenException(String.format(PRODUCT_ALREADY_EXIST_MESSAGE, product));
+    recordCatalogChange(sellerSummary, 1);
+    if (productRepository.existsByProductNameAndSellerId(product, sellerSummary.getId())) {
+      throw productTaken(product);
     }
     Product newProduct = new Product();
     newProduct.setProductName(product);
-    newProduct.setSeller(sellerOptional);
-    sellerOptional.addProduct(newProduct);
-    productRepository.save(newProduct);
-    sellerRepository.save(sellerOptional);
+    newProduct.setSeller(sellerRepository.getReferenceById(sellerSummary.getId()));
+    Product savedProduct;
+    try {
+      savedProduct = productRepository.saveAndFlush(newProduct);
+    } catch (DataIntegrityViolationException ex) {
+      throw translate(ex, Product.SELLER_PRODUCT_CONSTRAINT, () -> productTaken(product));
+    }
+    productSellerCache.evictProduct(savedProduct.getId());
+    outboxService.productAdded(
+        sellerSummary.getId(), sellerSummary.getSellerName(), savedProduct.getId(), product);
+    suggestionService.productAdded(sellerSummary.getId(), product);
+  }
+
+  /**
+   * Adds many products to a seller at once. Names that the seller already has are found with one
+   * set-based query per chunk of names instead of a lookup per product. The new products and their
+   * change events are inserted in chunks of the JDBC batch size, and the persistence context is
+   * flushed and cleared after every chunk, so memory and dirty checking do not grow with the
+   * batch. The seller's row is locked before the lookup, so a name added by another request is
+   * either committed before it and reported as a duplicate, or waits for this batch.
+   *
+   * @param products Names of the products to add
+   * @param seller Username of the seller to add the products to
+   * @return Number of added and skipped products and the outcome for every item
+   * @throws IllegalArgumentException if more than the configured maximum of products is given
+   * @throws ProductTakenException if a name is inserted without the seller's lock in the meantime
+   * @throws SellerNotFoundException if the seller with the given username is not found
+   */
+  public BulkAddResult addProductsToSeller(List<String> products, String seller) {
+    if (products.size() > maxBulkSize) {
+      throw new IllegalArgumentException(String.format(BULK_TOO_LARGE_MESSAGE, maxBulkSize));
+    }
+    SellerSummary sellerSummary = findSellerSummary(seller);
+    recordCatalogChange(sellerSummary, 0);
+    List<String> names =
+        products.stream().filter(p -> p != null && !p.trim().isEmpty()).distinct().toList();
+    Set<String> taken = new HashSet<>();
+    for (int from = 0; from < names.size(); from += BULK_LOOKUP_CHUNK_SIZE) {
+      List<String> chunk =
+          names.subList(from, Math.min(from + BULK_LOOKUP_CHUNK_SIZE, names.size()));
+      taken.addAll(productRepository.findExistingProductNames(sellerSummary.getId(), chunk));
+    }
+
+    List<BulkAddItem> items = new ArrayList<>(products.size());
+    List<String> newNames = new ArrayList<>(names.size());
+    for (String product : products) {
+      if (product == null || product.trim().isEmpty()) {
+        items.add(new BulkAddItem(product, BulkAddItem.Status.EMPTY));
+      } else if (!taken.add(product)) {
+        items.add(new BulkAddItem(product, BulkAddItem.Status.DUPLICATE));
+      } else {
+        newNames.add(product);
+        items.add(new BulkAddItem(product, BulkAddItem.Status.ADDED));
+      }
+    }
+    List<Long> savedIds = new ArrayList<>(newNames.size());
+    try {
+      for (int from = 0; from < newNames.size(); from += bulkInsertChunkSize) {
+        List<String> chunk =
+            newNames.subList(from, Math.min(from + bulkInsertChunkSize, newNames.size()));
+        savedIds.addAll(insertProducts(sellerSummary, chunk));
+      }
+    } catch (DataIntegrityViolationException ex) {
+      throw translate(
+          ex,
+          Product.SELLER_PRODUCT_CONSTRAINT,
+          () -> new ProductTakenException(String.format(BULK_CONFLICT_MESSAGE, seller)));
+    }
+    productSellerCache.evictProducts(savedIds);
+    if (!savedIds.isEmpty()) {
+      recordCatalogChange(sellerSummary, savedIds.size());
+    }
+    suggestionService.productsAdded(sellerSummary.getId(), newNames);
+    return new BulkAddResult(newNames.size(), items.size() - newNames.size(), items);
   }
 
   /**
-   * Deletes a product from a seller's inventory.
+   * Util function, inserts one chunk of new products with their change events, then flushes and
+   * clears the persistence context.
+   *
+   * @return IDs of the inserted products
+   */
+  private List<Long> insertProducts(SellerSummary seller, List<String> names) {
+    // Taken again for every chunk, since clearing detaches the previous reference
+    Seller sellerReference = sellerRepository.getReferenceById(seller.getId());
+    List<Product> newProducts = new ArrayList<>(names.size());
+    for (String name : names) {
+      Product newProduct = new Product();
+      newProduct.setProductName(name);
+      newProduct.setSeller(sellerReference);
+      newProducts.add(newProduct);
+    }
+    List<Product> savedProducts = productRepository.saveAll(newProducts);
+    outboxService.productsAdded(seller.getId(), seller.getSellerName(), savedProducts);
+    List<Long> ids = savedProducts.stream().map(Product::getId).toList();
+    productRepository.flush();
+    entityManager.clear();
+    return ids;
+  }
+
+  /**
+   * Deletes a product from a seller's inventory. Only the product's ID is read, so that it can be
+   * evicted from the product cache, and the row is marked as deleted by ID; the purger removes it
+   * later, off-peak.
    *
    * @param productDelete Name of the product to delete
    * @param seller Username of the seller from whose inventory to delete the product
@@ -144,20 +551,23 @@ public class SellerService {
    * @throws SellerNotFoundException if the seller with the given username is not found
    */
   public void deleteProduct(String productDelete, String seller) {
-    Seller sellerOptional = findSeller(seller);
-    Product productToDelete = sellerOptional.getProduct(productDelete);
-    if (productToDelete == null) {
-      throw new ProductNotFoundException(String.format(PRODUCT_NOT_FOUND_MESSAGE, productDelete));
+    SellerSummary sellerSummary = findSellerSummary(seller);
+    Long productId =
+        productRepository
+            .findProductId(sellerSummary.getId(), productDelete)
+            .orElseThrow(() -> productNotFound(productDelete));
+    if (productRepository.softDeleteProduct(productId, Instant.now()) == 0) {
+      throw productNotFound(productDelete);
     }
-    sellerOptional
-        .getProducts()
-        .removeIf(product -> product.getProductName().equals(productDelete));
-    productRepository.delete(productToDelete);
-    sellerRepository.save(sellerOptional);
+    productSellerCache.evictProduct(productId);
+    recordCatalogChange(sellerSummary, -1);
+    outboxService.productDeleted(
+        sellerSummary.getId(), sellerSummary.getSellerName(), productId, productDelete);
+    suggestionService.productRemoved(sellerSummary.getId(), productDelete);
   }
 
   /**
-   * Changes the name of a product associated with a seller.
+   * Changes the name of a product associated with a seller with a single update statement.
    *
    * @param oldProductName Current name of the product
    * @param newProductName New name to change to
@@ -168,34 +578,149 @@ public class SellerService {
    * @throws IllegalArgumentException if the product name is empty
    */
   public void changeProduct(String oldProductName, String newProductName, String seller) {
-    Seller sellerOptional = findSeller(seller);
+    SellerSummary sellerSummary = findSellerSummary(seller);
     if (newProductName.trim().isEmpty()) {
       throw new IllegalArgumentException(PRODUCT_EMPTY_MESSAGE);
     }
 
-    Product oldProduct = sellerOptional.getProduct(oldProductName);
-    if (oldProduct == null) {
-      throw new ProductNotFoundException(String.format(PRODUCT_NOT_FOUND_MESSAGE, oldProductName));
+    recordCatalogChange(sellerSummary, 0);
+    if (productRepository.existsByProductNameAndSellerId(newProductName, sellerSummary.getId())) {
+      throw productTaken(newProductName);
+    }
+    int renamed;
+    try {
+      renamed =
+          productRepository.renameProduct(sellerSummary.getId(), oldProductName, newProductName);
+    } catch (DataIntegrityViolationException ex) {
+      throw translate(ex, Product.SELLER_PRODUCT_CONSTRAINT, () -> productTaken(newProductName));
+    }
+    if (renamed == 0) {
+      throw productNotFound(oldProductName);
+    }
+    outboxService.productRenamed(
+        sellerSummary.getId(), sellerSummary.getSellerName(), oldProductName, newProductName);
+    suggestionService.productRenamed(sellerSummary.getId(), oldProductName, newProductName);
+  }
+
+  /**
+   * Util function, turns a violation of the given unique constraint into a domain exception and
+   * passes any other integrity violation through unchanged
+   *
+   * @param ex Exception thrown when flushing
+   * @param constraint Name of the unique constraint that signals a conflict
+   * @param conflict Supplier of the exception to throw on a conflict
+   */
+  private static RuntimeException translate(
+      DataIntegrityViolationException ex,
+      String constraint,
+      Supplier<? extends RuntimeException> conflict) {
+    if (ex.getCause() instanceof ConstraintViolationException violation
+        && constraint.equalsIgnoreCase(violation.getConstraintName())) {
+      return conflict.get();
+    }
+    return ex;
+  }
+
+  private static SellerTakenException sellerTaken(String sellerName) {
+    return new SellerTakenException(String.format(SELLER_TAKEN_MESSAGE, sellerName));
+  }
+
+  private static ProductTakenException productTaken(String productName) {
+    return new ProductTakenException(String.format(PRODUCT_ALREADY_EXIST_MESSAGE, productName));
+  }
+
+  private static SellerNotFoundException sellerNotFound(String sellerName) {
+    return new SellerNotFoundException(String.format(SELLER_NOT_FOUND_MESSAGE, sellerName));
+  }
+
+  private static ProductNotFoundException productNotFound(String productName) {
+    return new ProductNotFoundException(String.format(PRODUCT_NOT_FOUND_MESSAGE, productName));
+  }
+
+  private static long decodeToken(String token) {
+    if (token == null || token.isBlank()) {
+      return 0L;
     }
-    Product newProduct = sellerOptional.getProduct(newProductName);
-    if (newProduct == null) {
-      oldProduct.setProductName(newProductName);
-      productRepository.save(oldProduct);
-    } else {
-      throw new ProductTakenException(String.format(PRODUCT_ALREADY_EXIST_MESSAGE, newProductName));
+    try {
+      return Long.parseLong(ContinuationTokens.decode(token));
+    } catch (NumberFormatException ex) {
+      throw ContinuationTokens.invalid(token);
     }
   }
 
   /**
-   * Util function
+   * Util function, resolves a seller through the seller cache and falls back to the database. A
+   * seller read from the replica is not cached, since the replica may still show a name that was
+   * just changed or deleted on the primary.
    *
    * @param sellerName Username of the seller
    * @throws SellerNotFoundException if the seller with the given username is not found
    */
-  private Seller findSeller(String sellerName) {
-    return sellerRepository
-        .findSellerBySellerName(sellerName)
-        .orElseThrow(
-            () -> new SellerNotFoundException(String.format(SELLER_NOT_FOUND_MESSAGE, sellerName)));
+  private SellerSummary findSellerSummary(String sellerName) {
+    Optional<SellerSummary> cached = sellerCache.get(sellerName);
+    if (cached.isPresent()) {
+      return cached.get();
+    }
+    SellerSummary seller =
+        sellerRepository
+            .findSellerSummaryBySellerName(sellerName)
+            .orElseThrow(() -> sellerNotFound(sellerName));
+    if (!replicaEnabled || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+      sellerCache.put(seller);
+    }
+    return seller;
+  }
+
+  /**
+   * Util function, increments the stamp of the seller listings once the current transaction
+   * commits, in a short transaction of its own. Seller writes therefore never hold the stamp row
+   * lock, so they do not wait for each other. A reader that reads the stamp before the increment
+   * and the listing after the commit tags the new listing with the old stamp, which only costs the
+   * client one more full response. Creates the stamp when the database was not seeded with it, so
+   * the listing ETags never get stuck on a version that no longer changes.
+   */
+  private void bumpSellersStamp() {
+    TransactionHooks.afterCommit(
+        () -> {
+          try {
+            stampTransaction.executeWithoutResult(status -> incrementSellersStamp());
+          } catch (RuntimeException ex) {
+            // The change is committed already; a concurrent creation of the stamp also bumped it
+            log.warn("Failed to bump the sellers stamp: {}", ex.getMessage());
+          }
+        });
+  }
+
+  private void incrementSellersStamp() {
+    if (catalogStampRepository.incrementVersion(CatalogStamp.SELLERS) == 0) {
+      catalogStampRepository.saveAndFlush(new CatalogStamp(CatalogStamp.SELLERS, 1));
+    }
+  }
+
+  /**
+   * Util function, updates the seller's product count and catalog version. Fails when the seller
+   * was deleted in the meantime, which rolls the product change back instead of leaving a product
+   * behind that the deletion job has already passed. Product additions and renames call it before
+   * their existence check, so that they hold the seller's row lock while checking.
+   *
+   * @param seller Seller whose products changed
+   * @param delta Change of the number of products
+   * @throws SellerNotFoundException if the seller was deleted
+   */
+  private void recordCatalogChange(SellerSummary seller, long delta) {
+    if (sellerRepository.recordCatalogChange(seller.getId(), delta) == 0) {
+      sellerCache.evict(seller.getSellerName());
+      throw sellerNotFound(seller.getSellerName());
+    }
+  }
+
+  /**
+   * Util function, a cached seller name is taken for sure, otherwise asks the database
+   *
+   * @param sellerName Username to check
+   */
+  private boolean isSellerNameTaken(String sellerName) {
+    return sellerCache.get(sellerName).isPresent()
+        || sellerRepository.existsSellerBySellerName(sellerName).booleanValue();
   }
 }
@@ -0,0 +1,272 @@
+package com.fleamarket.service;
+
+import com.fleamarket.cache.NameIndex;
+import com.fleamarket.dao.ProductRepository;
+import com.fleamarket.dao.SellerRepository;
+import com.fleamarket.model.dto.SellerProductName;
+import com.fleamarket.model.dto.SuggestionStats;
+import com.fleamarket.model.dto.Suggestions;
+import com.fleamarket.util.TransactionHooks;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Service
+@Slf4j
+public class SuggestionService {
+  private static final String PREFIX_EMPTY_MESSAGE = "Prefix parameter cannot be empty";
+  private static final String INVALID_LIMIT_MESSAGE = "Suggestion limit must be between 1 and %d";
+
+  private final Object lock = new Object();
+  private volatile Indexes indexes = new Indexes(new NameIndex(), new NameIndex());
+  // Changes committed while the index is rebuilt, replayed on the new index; null otherwise
+  private List<Change> pendingChanges;
+  private ProductRepository productRepository;
+  private SellerRepository sellerRepository;
+  private TransactionTemplate transactionTemplate;
+  private int defaultLimit = 10;
+  private int maxLimit = 50;
+
+  @Autowired
+  public void setProductRepository(ProductRepository productRepository) {
+    this.productRepository = productRepository;
+  }
+
+  @Autowired
+  public void setSellerRepository(SellerRepository sellerRepository) {
+    this.sellerRepository = sellerRepository;
+  }
+
+  @Autowired
+  public void setTransactionManager(PlatformTransactionManager transactionManager) {
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.transactionTemplate.setReadOnly(true);
+  }
+
+  @Value("${fleamarket.suggest.default-limit:10}")
+  public void setDefaultLimit(int defaultLimit) {
+    this.defaultLimit = defaultLimit;
+  }
+
+  @Value("${fleamarket.suggest.max-limit:50}")
+  public void setMaxLimit(int maxLimit) {
+    this.maxLimit = maxLimit;
+  }
+
+  /**
+   * Loads all product and seller names into memory. Names are streamed from the database into a
+   * new index, and suggestions are served from the old index until the new one is swapped in.
+   * Changes committed in the meantime are applied to both.
+   *
+   * <p>Some of those changes may already be in the streamed rows, so the rows are first collected
+   * into sets keyed by seller and product name, which identify a live product, and by seller name.
+   * Replaying a change on them sets the state of its key, so a change the rows already contain
+   * changes nothing. The counted index is built from the sets once the replay is done.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void rebuild() {
+    long start = System.nanoTime();
+    Snapshot snapshot = new Snapshot();
+    synchronized (lock) {
+      pendingChanges = new ArrayList<>();
+    }
+    try {
+      transactionTemplate.executeWithoutResult(
+          status -> {
+            try (Stream<SellerProductName> names = productRepository.streamAllProductNames()) {
+              names.forEach(snapshot.products::add);
+            }
+            try (Stream<String> names = sellerRepository.streamAllSellerNames()) {
+              names.forEach(snapshot.sellers::add);
+            }
+          });
+      synchronized (lock) {
+        for (Change change : pendingChanges) {
+          change.apply(snapshot);
+        }
+        indexes = snapshot.toIndexes();
+      }
+    } finally {
+      synchronized (lock) {
+        pendingChanges = null;
+      }
+    }
+    SuggestionStats stats = getStats();
+    log.info(
+        "Suggestion index built in {} ms: {} product names, {} seller names, ~{} bytes",
+        (System.nanoTime() - start) / 1_000_000,
+        stats.getProductNames(),
+        stats.getSellerNames(),
+        stats.getEstimatedBytes());
+  }
+
+  /**
+   * Suggests product and seller names starting with the prefix, without touching the database.
+   *
+   * @param prefix Prefix typed by the user, case is ignored
+   * @param limit Maximum number of names of each kind, or null for the configured default
+   * @throws IllegalArgumentException if the prefix is empty or the limit is out of range
+   */
+  public Suggestions suggest(String prefix, Integer limit) {
+    if (prefix == null || prefix.isEmpty()) {
+      throw new IllegalArgumentException(PREFIX_EMPTY_MESSAGE);
+    }
+    int size = limit == null ? defaultLimit : limit;
+    if (size < 1 || size > maxLimit) {
+      throw new IllegalArgumentException(String.format(INVALID_LIMIT_MESSAGE, maxLimit));
+    }
+    Indexes current = indexes;
+    return new Suggestions(
+        current.products().suggest(prefix, size), current.sellers().suggest(prefix, size));
+  }
+
+  /** Reports the size of the index and its estimated heap footprint. */
+  public SuggestionStats getStats() {
+    Indexes current = indexes;
+    int productNames = current.products().size();
+    int sellerNames = current.sellers().size();
+    long bytes = current.products().estimatedBytes() + current.sellers().estimatedBytes();
+    long bytesPerMillion =
+        productNames + sellerNames == 0 ? 0 : bytes * 1_000_000 / (productNames + sellerNames);
+    return new SuggestionStats(productNames, sellerNames, bytes, bytesPerMillion);
+  }
+
+  public void productAdded(Long sellerId, String product) {
+    afterCommit(names -> names.addProduct(sellerId, product));
+  }
+
+  public void productsAdded(Long sellerId, Collection<String> added) {
+    afterCommit(names -> added.forEach(product -> names.addProduct(sellerId, product)));
+  }
+
+  public void productRenamed(Long sellerId, String oldProduct, String newProduct) {
+    afterCommit(
+        names -> {
+          names.removeProduct(sellerId, oldProduct);
+          names.addProduct(sellerId, newProduct);
+        });
+  }
+
+  public void productRemoved(Long sellerId, String product) {
+    afterCommit(names -> names.removeProduct(sellerId, product));
+  }
+
+  public void productsRemoved(Long sellerId, Collection<String> removed) {
+    afterCommit(names -> removed.forEach(product -> names.removeProduct(sellerId, product)));
+  }
+
+  public void sellerAdded(String seller) {
+    afterCommit(names -> names.addSeller(seller));
+  }
+
+  public void sellerRenamed(String oldSeller, String newSeller) {
+    afterCommit(
+        names -> {
+          names.removeSeller(oldSeller);
+          names.addSeller(newSeller);
+        });
+  }
+
+  public void sellerRemoved(String seller) {
+    afterCommit(names -> names.removeSeller(seller));
+  }
+
+  /**
+   * Util function, applies a change to the index once the current transaction commits, and keeps
+   * it for the new index while a rebuild is running.
+   */
+  private void afterCommit(Change change) {
+    TransactionHooks.afterCommit(
+        () -> {
+          synchronized (lock) {
+            change.apply(indexes);
+            if (pendingChanges != null) {
+              pendingChanges.add(change);
+            }
+          }
+        });
+  }
+
+  /** Receiver of changes: the live index, or the snapshot of a rebuild. */
+  private interface Names {
+    void addProduct(Long sellerId, String product);
+
+    void removeProduct(Long sellerId, String product);
+
+    void addSeller(String seller);
+
+    void removeSeller(String seller);
+  }
+
+  @FunctionalInterface
+  private interface Change {
+    void apply(Names names);
+  }
+
+  /** Counted name indexes that serve suggestions. The seller of a product is not kept. */
+  private record Indexes(NameIndex products, NameIndex sellers) implements Names {
+    @Override
+    public void addProduct(Long sellerId, String product) {
+      products.add(product);
+    }
+
+    @Override
+    public void removeProduct(Long sellerId, String product) {
+      products.remove(product);
+    }
+
+    @Override
+    public void addSeller(String seller) {
+      sellers.add(seller);
+    }
+
+    @Override
+    public void removeSeller(String seller) {
+      sellers.remove(seller);
+    }
+  }
+
+  /** Live products and sellers read by a rebuild, keyed so that a change can be applied twice. */
+  private static class Snapshot implements Names {
+    private final Set<SellerProductName> products = new HashSet<>();
+    private final Set<String> sellers = new HashSet<>();
+
+    @Override
+    public void addProduct(Long sellerId, String product) {
+      products.add(new SellerProductName(sellerId, product));
+    }
+
+    @Override
+    public void removeProduct(Long sellerId, String product) {
+      products.remove(new SellerProductName(sellerId, product));
+    }
+
+    @Override
+    public void addSeller(String seller) {
+      sellers.add(seller);
+    }
+
+    @Override
+    public void removeSeller(String seller) {
+      sellers.remove(seller);
+    }
+
+    Indexes toIndexes() {
+      Indexes indexes = new Indexes(new NameIndex(), new NameIndex());
+      products.forEach(product -> indexes.products().add(product.getProductName()));
+      sellers.forEach(indexes.sellers()::add);
+      return indexes;
+    }
+  }
+}
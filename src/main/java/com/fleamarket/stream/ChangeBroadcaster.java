@@ -0,0 +1,410 @@
+package com.fleamarket.stream;
+
+import com.fleamarket.model.dto.ChangeEvent;
+import com.fleamarket.model.dto.ChangeFeed;
+import com.fleamarket.model.dto.ProductView;
+import com.fleamarket.model.dto.ProductsAdded;
+import com.fleamarket.service.OutboxService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Pushes committed changes to Server-Sent Events subscribers. The broadcaster follows the change
+ * feed on the primary in position order, so subscribers see the changes of every instance in
+ * commit order, and event IDs are feed positions, the cursors of {@code /changes}. Consecutive
+ * products added to one seller are sent as a single PRODUCTS_ADDED event, so a bulk addition takes
+ * one slot of a subscriber's queue rather than one per product. Connections are held as async
+ * requests, so an idle subscriber costs a socket and a small queue but no thread. Events are
+ * queued per subscriber and written by a small pool of dispatch threads; a subscriber whose queue
+ * overflows is disconnected instead of slowing down the others.
+ *
+ * <p>A client that reconnects with {@code Last-Event-ID} first gets the changes it missed, read
+ * from the outbox. When it missed more changes than its queue holds, the stream ends after the
+ * first part with an event that only carries the position reached, and the client continues from
+ * there when it reconnects again.
+ */
+@Component
+@Slf4j
+public class ChangeBroadcaster {
+  public static final String PRODUCTS_ADDED = "PRODUCTS_ADDED";
+  private static final Object HEARTBEAT = new Object();
+  private static final Object CLOSE = new Object();
+
+  private final Set<Subscriber> globalSubscribers = ConcurrentHashMap.newKeySet();
+  private final Map<Long, Set<Subscriber>> sellerSubscribers = new ConcurrentHashMap<>();
+  private final Queue<Subscriber> pendingSubscribers = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger subscriberCount = new AtomicInteger();
+  private final OutboxService outboxService;
+  private final int bufferSize;
+  private final long timeoutMillis;
+  private final int dispatchThreads;
+  private final int pageSize;
+  private final Counter dropped;
+  private Executor dispatcher;
+  // Position of the last change sent to the subscribers, -1 while nobody is subscribed
+  private long position = -1;
+
+  @Autowired
+  public ChangeBroadcaster(
+      OutboxService outboxService,
+      @Value("${fleamarket.sse.buffer-size:1000}") int bufferSize,
+      @Value("${fleamarket.sse.timeout:30m}") Duration timeout,
+      @Value("${fleamarket.sse.dispatch-threads:4}") int dispatchThreads,
+      @Value("${fleamarket.changes.max-limit:1000}") int pageSize,
+      MeterRegistry meterRegistry) {
+    this.outboxService = outboxService;
+    this.bufferSize = bufferSize;
+    this.timeoutMillis = timeout.toMillis();
+    this.dispatchThreads = dispatchThreads;
+    this.pageSize = pageSize;
+    this.dropped = meterRegistry.counter("fleamarket.sse.dropped");
+    meterRegistry.gauge("fleamarket.sse.subscribers", subscriberCount);
+  }
+
+  public void setDispatcher(Executor dispatcher) {
+    this.dispatcher = dispatcher;
+  }
+
+  @PostConstruct
+  public void init() {
+    if (dispatcher == null) {
+      dispatcher = Executors.newFixedThreadPool(dispatchThreads);
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    if (dispatcher instanceof ExecutorService executorService) {
+      executorService.shutdownNow();
+    }
+  }
+
+  /**
+   * Subscribes to all changes in the marketplace.
+   *
+   * @param lastEventId ID of the last event the client received, or null for new changes only
+   */
+  public SseEmitter subscribe(Long lastEventId) {
+    return register(new Subscriber(null, lastEventId, bufferSize, timeoutMillis));
+  }
+
+  /**
+   * Subscribes to product changes of one seller. The stream ends after the seller is deleted.
+   *
+   * @param sellerId ID of the seller
+   * @param lastEventId ID of the last event the client received, or null for new changes only
+   */
+  public SseEmitter subscribe(Long sellerId, Long lastEventId) {
+    return register(new Subscriber(sellerId, lastEventId, bufferSize, timeoutMillis));
+  }
+
+  /**
+   * Starts the subscribers that arrived since the last poll, then sends them and everybody else the
+   * changes committed since. Does not touch the database while nobody is subscribed.
+   */
+  @Scheduled(fixedDelayString = "${fleamarket.sse.poll-interval-ms:500}")
+  public synchronized void poll() {
+    if (pendingSubscribers.isEmpty()
+        && globalSubscribers.isEmpty()
+        && sellerSubscribers.isEmpty()) {
+      position = -1;
+      return;
+    }
+    try {
+      if (position < 0) {
+        position = outboxService.getLastPosition();
+      }
+      Subscriber subscriber;
+      while ((subscriber = pendingSubscribers.poll()) != null) {
+        start(subscriber);
+      }
+      while (true) {
+        ChangeFeed feed = outboxService.getChanges(position, pageSize);
+        broadcast(feed.getEvents());
+        position = feed.getCursor();
+        if (feed.getEvents().size() < pageSize) {
+          return;
+        }
+      }
+    } catch (RuntimeException ex) {
+      log.warn("Following the change feed failed, retrying on the next poll", ex);
+    }
+  }
+
+  /** Keeps idle connections open through proxies and detects clients that went away. */
+  @Scheduled(fixedDelayString = "${fleamarket.sse.heartbeat-interval-ms:15000}")
+  public void heartbeat() {
+    globalSubscribers.forEach(subscriber -> enqueue(subscriber, HEARTBEAT));
+    sellerSubscribers.values().forEach(set -> set.forEach(s -> enqueue(s, HEARTBEAT)));
+  }
+
+  private SseEmitter register(Subscriber subscriber) {
+    subscriberCount.incrementAndGet();
+    subscriber.emitter.onCompletion(() -> remove(subscriber));
+    subscriber.emitter.onTimeout(() -> remove(subscriber));
+    subscriber.emitter.onError(ex -> remove(subscriber));
+    pendingSubscribers.add(subscriber);
+    return subscriber.emitter;
+  }
+
+  /**
+   * Util function, replays the changes a resuming subscriber missed up to the current position,
+   * then adds it to the live subscribers unless its stream ends with the replay.
+   */
+  private void start(Subscriber subscriber) {
+    if (subscriber.resumeFrom != null && subscriber.resumeFrom < position) {
+      List<ChangeEvent> missed = new ArrayList<>();
+      long reached = subscriber.resumeFrom;
+      int scanned = 0;
+      while (reached < position && scanned < bufferSize) {
+        List<ChangeEvent> page =
+            outboxService.getChanges(reached, Math.min(pageSize, bufferSize - scanned)).getEvents();
+        if (page.isEmpty()) {
+          break;
+        }
+        for (ChangeEvent event : page) {
+          if (event.getPosition() > position) {
+            reached = position;
+            break;
+          }
+          reached = event.getPosition();
+          scanned++;
+          if (subscriber.sellerId == null || isSellerEvent(subscriber.sellerId, event)) {
+            missed.add(event);
+          }
+        }
+      }
+      toItems(missed).forEach(item -> enqueue(subscriber, item));
+      if (reached < position) {
+        enqueue(subscriber, new Resume(reached));
+        enqueue(subscriber, CLOSE);
+        return;
+      }
+      if (subscriber.sellerId != null && endsSellerStream(missed)) {
+        enqueue(subscriber, CLOSE);
+        return;
+      }
+    }
+    if (subscriber.sellerId == null) {
+      globalSubscribers.add(subscriber);
+    } else {
+      sellerSubscribers
+          .computeIfAbsent(subscriber.sellerId, id -> ConcurrentHashMap.newKeySet())
+          .add(subscriber);
+    }
+    if (subscriber.removed.get()) {
+      remove(subscriber);
+    }
+  }
+
+  /**
+   * Util function, sends committed changes to the global subscribers and, for product changes and
+   * deletions, to the subscribers of the seller.
+   *
+   * @param events Changes in position order
+   */
+  private void broadcast(List<ChangeEvent> events) {
+    if (events.isEmpty()) {
+      return;
+    }
+    if (!globalSubscribers.isEmpty()) {
+      List<Object> items = toItems(events);
+      globalSubscribers.forEach(subscriber -> items.forEach(item -> enqueue(subscriber, item)));
+    }
+    if (sellerSubscribers.isEmpty()) {
+      return;
+    }
+    Map<Long, List<ChangeEvent>> bySeller = new LinkedHashMap<>();
+    for (ChangeEvent event : events) {
+      if (sellerSubscribers.containsKey(event.getSellerId())
+          && isSellerEvent(event.getSellerId(), event)) {
+        bySeller.computeIfAbsent(event.getSellerId(), id -> new ArrayList<>()).add(event);
+      }
+    }
+    bySeller.forEach(
+        (sellerId, sellerEvents) -> {
+          Set<Subscriber> subscribers = sellerSubscribers.get(sellerId);
+          if (subscribers == null) {
+            return;
+          }
+          List<Object> items = toItems(sellerEvents);
+          if (endsSellerStream(sellerEvents)) {
+            items.add(CLOSE);
+          }
+          subscribers.forEach(subscriber -> items.forEach(item -> enqueue(subscriber, item)));
+        });
+  }
+
+  private static boolean isSellerEvent(Long sellerId, ChangeEvent event) {
+    if (!sellerId.equals(event.getSellerId())) {
+      return false;
+    }
+    return switch (event.getType()) {
+      case PRODUCT_ADDED, PRODUCT_RENAMED, PRODUCT_DELETED, SELLER_DELETED -> true;
+      default -> false;
+    };
+  }
+
+  private static boolean endsSellerStream(List<ChangeEvent> events) {
+    return events.stream().anyMatch(event -> event.getType() == ChangeEvent.Type.SELLER_DELETED);
+  }
+
+  /**
+   * Util function, turns changes into stream items, folding each run of products added to the same
+   * seller into one {@link ProductsAdded}.
+   */
+  private static List<Object> toItems(List<ChangeEvent> events) {
+    List<Object> items = new ArrayList<>();
+    List<ChangeEvent> run = new ArrayList<>();
+    for (ChangeEvent event : events) {
+      boolean added = event.getType() == ChangeEvent.Type.PRODUCT_ADDED;
+      if (!run.isEmpty() && !(added && run.get(0).getSellerId().equals(event.getSellerId()))) {
+        items.add(toItem(run));
+        run.clear();
+      }
+      if (added) {
+        run.add(event);
+      } else {
+        items.add(event);
+      }
+    }
+    if (!run.isEmpty()) {
+      items.add(toItem(run));
+    }
+    return items;
+  }
+
+  private static Object toItem(List<ChangeEvent> run) {
+    if (run.size() == 1) {
+      return run.get(0);
+    }
+    ChangeEvent last = run.get(run.size() - 1);
+    List<ProductView> products =
+        run.stream()
+            .map(event -> new ProductView(event.getProductId(), event.getProductName()))
+            .toList();
+    return new ProductsAdded(
+        last.getPosition(), last.getSellerId(), last.getSellerName(), products);
+  }
+
+  private void enqueue(Subscriber subscriber, Object item) {
+    if (!subscriber.queue.offer(item)) {
+      if (item != HEARTBEAT) {
+        dropped.increment();
+        remove(subscriber);
+        subscriber.emitter.complete();
+      }
+      return;
+    }
+    if (subscriber.draining.compareAndSet(false, true)) {
+      dispatcher.execute(() -> drain(subscriber));
+    }
+  }
+
+  private void drain(Subscriber subscriber) {
+    while (true) {
+      Object item = subscriber.queue.poll();
+      if (item == null) {
+        subscriber.draining.set(false);
+        if (subscriber.queue.isEmpty() || !subscriber.draining.compareAndSet(false, true)) {
+          return;
+        }
+        continue;
+      }
+      if (item == CLOSE) {
+        remove(subscriber);
+        subscriber.emitter.complete();
+        return;
+      }
+      try {
+        subscriber.emitter.send(toSseEvent(item));
+      } catch (IOException | IllegalStateException ex) {
+        log.debug("Dropping SSE subscriber after a failed write", ex);
+        remove(subscriber);
+        subscriber.emitter.completeWithError(ex);
+        return;
+      }
+    }
+  }
+
+  private static SseEmitter.SseEventBuilder toSseEvent(Object item) {
+    if (item == HEARTBEAT) {
+      return SseEmitter.event().comment("heartbeat");
+    }
+    if (item instanceof Resume resume) {
+      return SseEmitter.event().id(String.valueOf(resume.position()));
+    }
+    if (item instanceof ProductsAdded products) {
+      return SseEmitter.event()
+          .id(String.valueOf(products.getPosition()))
+          .name(PRODUCTS_ADDED)
+          .data(products, MediaType.APPLICATION_JSON);
+    }
+    ChangeEvent event = (ChangeEvent) item;
+    return SseEmitter.event()
+        .id(String.valueOf(event.getPosition()))
+        .name(event.getType().name())
+        .data(event, MediaType.APPLICATION_JSON);
+  }
+
+  private void remove(Subscriber subscriber) {
+    if (subscriber.removed.compareAndSet(false, true)) {
+      subscriberCount.decrementAndGet();
+    }
+    if (subscriber.sellerId == null) {
+      globalSubscribers.remove(subscriber);
+      return;
+    }
+    sellerSubscribers.computeIfPresent(
+        subscriber.sellerId,
+        (id, subscribers) -> {
+          subscribers.remove(subscriber);
+          return subscribers.isEmpty() ? null : subscribers;
+        });
+  }
+
+  /** Position reached by a replay that had to stop, sent as an event with nothing but an ID. */
+  private record Resume(long position) {}
+
+  private static final class Subscriber {
+    private final Long sellerId;
+    private final Long resumeFrom;
+    private final SseEmitter emitter;
+    private final Queue<Object> queue;
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final AtomicBoolean removed = new AtomicBoolean();
+
+    private Subscriber(Long sellerId, Long resumeFrom, int bufferSize, long timeoutMillis) {
+      this.sellerId = sellerId;
+      this.resumeFrom = resumeFrom;
+      this.emitter = new SseEmitter(timeoutMillis);
+      // Room for the items of a full replay plus the marker that ends it
+      this.queue = new ArrayBlockingQueue<>(bufferSize + 2);
+    }
+  }
+}
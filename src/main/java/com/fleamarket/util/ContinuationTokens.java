@@ -0,0 +1,39 @@
+package com.fleamarket.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+public final class ContinuationTokens {
+  private static final String INVALID_TOKEN_MESSAGE = "Continuation token \"%s\" is invalid";
+
+  private ContinuationTokens() {}
+
+  /**
+   * Wraps the position of the last returned row into an opaque, URL-safe token.
+   *
+   * @param position Position of the last returned row
+   */
+  public static String encode(String position) {
+    return Base64.getUrlEncoder()
+        .withoutPadding()
+        .encodeToString(position.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Unwraps a token created by {@link #encode(String)}.
+   *
+   * @param token Token passed by the client
+   * @throws IllegalArgumentException if the token is not valid Base64
+   */
+  public static String decode(String token) {
+    try {
+      return new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+    } catch (IllegalArgumentException ex) {
+      throw invalid(token);
+    }
+  }
+
+  public static IllegalArgumentException invalid(String token) {
+    return new IllegalArgumentException(String.format(INVALID_TOKEN_MESSAGE, token));
+  }
+}
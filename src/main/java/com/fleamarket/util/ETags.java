@@ -0,0 +1,22 @@
+package com.fleamarket.util;
+
+public final class ETags {
+
+  private ETags() {}
+
+  /**
+   * Builds a strong, quoted entity tag from its parts.
+   *
+   * @param parts Values that change whenever the representation changes
+   */
+  public static String of(Object... parts) {
+    StringBuilder tag = new StringBuilder("\"");
+    for (int i = 0; i < parts.length; i++) {
+      if (i > 0) {
+        tag.append('-');
+      }
+      tag.append(parts[i]);
+    }
+    return tag.append('"').toString();
+  }
+}
@@ -0,0 +1,29 @@
+package com.fleamarket.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+public final class TransactionHooks {
+
+  private TransactionHooks() {}
+
+  /**
+   * Runs the action after the current transaction commits. Runs it right away when there is no
+   * active transaction, and never runs it when the transaction rolls back.
+   *
+   * @param action Action to run
+   */
+  public static void afterCommit(Runnable action) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      action.run();
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCommit() {
+            action.run();
+          }
+        });
+  }
+}
@@ -0,0 +1,23 @@
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE UNIQUE INDEX IF NOT EXISTS uk_seller_seller ON seller (seller) WHERE deleted_at IS NULL;
+
+CREATE UNIQUE INDEX IF NOT EXISTS uk_products_seller_product ON products (seller_id, product) WHERE deleted_at IS NULL;
+
+CREATE INDEX IF NOT EXISTS idx_seller_product_count ON seller (product_count DESC, id) WHERE deleted_at IS NULL;
+
+CREATE INDEX IF NOT EXISTS idx_products_seller_id ON products (seller_id, id);
+
+CREATE INDEX IF NOT EXISTS idx_products_deleted_at ON products (deleted_at) WHERE deleted_at IS NOT NULL;
+
+DROP INDEX IF EXISTS idx_products_product_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_products_product_trgm_gist ON products USING gist (product gist_trgm_ops) WHERE deleted_at IS NULL;
+
+CREATE INDEX IF NOT EXISTS idx_outbox_events_unpositioned ON outbox_events (id) WHERE feed_position IS NULL;
+
+CREATE INDEX IF NOT EXISTS idx_outbox_events_unpublished ON outbox_events (feed_position) WHERE published_at IS NULL;
+
+INSERT INTO catalog_stamps (scope, version) VALUES ('sellers', 0) ON CONFLICT (scope) DO NOTHING;
+
+INSERT INTO catalog_stamps (scope, version) VALUES ('outbox', 0) ON CONFLICT (scope) DO NOTHING;
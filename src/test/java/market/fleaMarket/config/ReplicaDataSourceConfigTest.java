@@ -0,0 +1,68 @@
+package market.fleaMarket.config;
+
+import com.fleamarket.config.ReplicaDataSourceConfig;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ReplicaDataSourceConfigTest {
+  private JdbcTemplate primary;
+  private JdbcTemplate replica;
+  private JdbcTemplate routed;
+  private TransactionTemplate readWrite;
+  private TransactionTemplate readOnly;
+
+  @BeforeEach
+  void setup() {
+    DataSource primaryDataSource = h2("primary");
+    DataSource replicaDataSource = h2("replica");
+    primary = new JdbcTemplate(primaryDataSource);
+    replica = new JdbcTemplate(replicaDataSource);
+    for (JdbcTemplate database : new JdbcTemplate[] {primary, replica}) {
+      database.execute("drop table if exists seller");
+      database.execute("create table seller (id bigint primary key, seller varchar(100))");
+    }
+    primary.update("insert into seller values (1, 'anna')");
+    replica.update("insert into seller values (1, 'anna-lagging')");
+
+    DataSource dataSource =
+        new ReplicaDataSourceConfig().dataSource(primaryDataSource, replicaDataSource);
+    routed = new JdbcTemplate(dataSource);
+    DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+    readWrite = new TransactionTemplate(transactionManager);
+    readOnly = new TransactionTemplate(transactionManager);
+    readOnly.setReadOnly(true);
+  }
+
+  @Test
+  void testReadOnlyTransactionReadsFromReplica() {
+    assertEquals("anna-lagging", readOnly.execute(status -> sellerName()));
+  }
+
+  @Test
+  void testReadWriteTransactionUsesPrimary() {
+    readWrite.executeWithoutResult(
+        status -> routed.update("update seller set seller = 'anna2' where id = 1"));
+
+    assertEquals("anna2", readWrite.execute(status -> sellerName()));
+    assertEquals(
+        "anna2", primary.queryForObject("select seller from seller where id = 1", String.class));
+    assertEquals(
+        "anna-lagging",
+        replica.queryForObject("select seller from seller where id = 1", String.class));
+  }
+
+  private String sellerName() {
+    return routed.queryForObject("select seller from seller where id = 1", String.class);
+  }
+
+  private static DataSource h2(String name) {
+    return new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+  }
+}
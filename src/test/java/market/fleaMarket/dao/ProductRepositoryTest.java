@@ -0,0 +1,89 @@
+package market.fleaMarket.dao;
+
+import com.fleamarket.dao.ProductRepository;
+import com.fleamarket.model.entity.Product;
+import com.fleamarket.model.entity.Seller;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/** Runs the native queries of the purger and the seller deletion job against H2. */
+@DataJpaTest
+@ContextConfiguration(classes = ProductRepositoryTest.Config.class)
+@TestPropertySource(properties = {"spring.jpa.database=h2", "spring.sql.init.mode=never"})
+class ProductRepositoryTest {
+  private static final Instant NOW = Instant.parse("2024-07-01T12:00:00Z");
+
+  @Autowired private ProductRepository productRepository;
+  @Autowired private TestEntityManager entityManager;
+
+  @Test
+  void testFindPurgeableProductIds_OldestDeletedProductsOfLiveSellers() {
+    Seller seller = seller("anna", null);
+    Seller deletedSeller = seller("philip", NOW);
+    Long newest = product(seller, "newest", NOW.minus(2, ChronoUnit.DAYS)).getId();
+    Long oldest = product(seller, "oldest", NOW.minus(4, ChronoUnit.DAYS)).getId();
+    Long middle = product(seller, "middle", NOW.minus(3, ChronoUnit.DAYS)).getId();
+    product(seller, "recent", NOW.minus(1, ChronoUnit.HOURS));
+    product(seller, "live", null);
+    product(deletedSeller, "old", NOW.minus(5, ChronoUnit.DAYS));
+    entityManager.flush();
+
+    Instant cutoff = NOW.minus(1, ChronoUnit.DAYS);
+
+    assertEquals(
+        List.of(oldest, middle, newest), productRepository.findPurgeableProductIds(cutoff, 10));
+    assertEquals(List.of(oldest, middle), productRepository.findPurgeableProductIds(cutoff, 2));
+  }
+
+  @Test
+  void testFindProductIdChunk_IncludesSoftDeletedProductsOfDeletedSeller() {
+    Seller seller = seller("anna", null);
+    Seller other = seller("philip", null);
+    Long first = product(seller, "first", null).getId();
+    Long second = product(seller, "second", NOW).getId();
+    Long third = product(seller, "third", null).getId();
+    product(other, "other", null);
+    entityManager.flush();
+    seller.setDeletedAt(NOW);
+    entityManager.flush();
+
+    assertEquals(
+        List.of(first, second, third), productRepository.findProductIdChunk(seller.getId(), 10));
+    assertEquals(List.of(first, second), productRepository.findProductIdChunk(seller.getId(), 2));
+  }
+
+  private Seller seller(String name, Instant deletedAt) {
+    Seller seller = new Seller();
+    seller.setSellerName(name);
+    seller.setDeletedAt(deletedAt);
+    return entityManager.persist(seller);
+  }
+
+  private Product product(Seller seller, String name, Instant deletedAt) {
+    Product product = new Product();
+    product.setProductName(name);
+    product.setSeller(seller);
+    product.setDeletedAt(deletedAt);
+    return entityManager.persist(product);
+  }
+
+  @SpringBootConfiguration
+  @EnableAutoConfiguration
+  @EntityScan("com.fleamarket.model.entity")
+  @EnableJpaRepositories("com.fleamarket.dao")
+  static class Config {}
+}
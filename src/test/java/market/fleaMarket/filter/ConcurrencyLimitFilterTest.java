@@ -0,0 +1,81 @@
+package market.fleaMarket.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fleamarket.filter.ConcurrencyLimitFilter;
+import com.fleamarket.filter.DatabasePermits;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ConcurrencyLimitFilterTest {
+  private SimpleMeterRegistry meterRegistry;
+  private ConcurrencyLimitFilter filter;
+
+  @BeforeEach
+  public void setup() {
+    meterRegistry = new SimpleMeterRegistry();
+    filter =
+        new ConcurrencyLimitFilter(
+            new DatabasePermits(1, Duration.ZERO, meterRegistry),
+            List.of("/sellers/*/products/stream"),
+            new ObjectMapper().findAndRegisterModules());
+  }
+
+  @Test
+  void testReleasesPermitAfterRequest() throws Exception {
+    assertEquals(200, run("/sellers/getSellersPage", (req, res) -> {}).getStatus());
+    assertEquals(200, run("/sellers/getSellersPage", (req, res) -> {}).getStatus());
+    assertEquals(0, inFlight());
+  }
+
+  @Test
+  void testRejectsWithoutPermit() throws Exception {
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/sellers/export");
+    request.setAsyncSupported(true);
+    filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> req.startAsync());
+
+    assertEquals(503, run("/sellers/getSellersPage", (req, res) -> {}).getStatus());
+    assertEquals(1, meterRegistry.counter("fleamarket.concurrency.rejected").count());
+  }
+
+  @Test
+  void testAsyncRequestHoldsPermitUntilComplete() throws Exception {
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/sellers/export");
+    request.setAsyncSupported(true);
+    filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> req.startAsync());
+    assertEquals(1, inFlight());
+
+    request.getAsyncContext().complete();
+
+    assertEquals(0, inFlight());
+    assertEquals(200, run("/sellers/getSellersPage", (req, res) -> {}).getStatus());
+  }
+
+  @Test
+  void testExcludedPathsTakeNoPermit() throws Exception {
+    MockHttpServletRequest request =
+        new MockHttpServletRequest("GET", "/sellers/anna/products/stream");
+    request.setAsyncSupported(true);
+    filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> req.startAsync());
+
+    assertEquals(0, inFlight());
+  }
+
+  private MockHttpServletResponse run(String uri, FilterChain chain) throws Exception {
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    filter.doFilter(new MockHttpServletRequest("GET", uri), response, chain);
+    return response;
+  }
+
+  private double inFlight() {
+    return meterRegistry.get("fleamarket.concurrency.in.flight").gauge().value();
+  }
+}
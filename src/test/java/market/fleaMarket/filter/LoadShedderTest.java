@@ -0,0 +1,78 @@
+package market.fleaMarket.filter;
+
+import com.fleamarket.config.RateLimitProperties;
+import com.fleamarket.filter.LoadShedder;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LoadShedderTest {
+  private SimpleMeterRegistry meterRegistry;
+  private LoadShedder loadShedder;
+
+  @BeforeEach
+  public void setup() {
+    meterRegistry = new SimpleMeterRegistry();
+    loadShedder = new LoadShedder(meterRegistry, new RateLimitProperties());
+  }
+
+  @Test
+  void testShedsExpensiveRequestsWhilePoolWaitIsHigh() {
+    Timer acquire =
+        Timer.builder("hikaricp.connections.acquire")
+            .publishPercentiles(0.99)
+            .register(meterRegistry);
+    for (int i = 0; i < 100; i++) {
+      acquire.record(Duration.ofSeconds(1));
+    }
+
+    loadShedder.check();
+
+    assertTrue(loadShedder.shouldShed(5));
+    assertFalse(loadShedder.shouldShed(4));
+    assertEquals(1, meterRegistry.get("fleamarket.shedding.active").gauge().value());
+  }
+
+  @Test
+  void testShedsWhileRequestLatencyIsHigh() {
+    for (int i = 0; i < 100; i++) {
+      loadShedder.record(Duration.ofSeconds(3).toNanos());
+    }
+
+    loadShedder.check();
+
+    assertTrue(loadShedder.shouldShed(5));
+  }
+
+  @Test
+  void testDoesNotShedUnderNormalLoad() {
+    for (int i = 0; i < 100; i++) {
+      loadShedder.record(Duration.ofMillis(20).toNanos());
+    }
+
+    loadShedder.check();
+
+    assertFalse(loadShedder.shouldShed(100));
+  }
+
+  @Test
+  void testDisabled() {
+    RateLimitProperties properties = new RateLimitProperties();
+    properties.getShedding().setEnabled(false);
+    LoadShedder disabled = new LoadShedder(new SimpleMeterRegistry(), properties);
+    for (int i = 0; i < 100; i++) {
+      disabled.record(Duration.ofSeconds(3).toNanos());
+    }
+
+    disabled.check();
+
+    assertFalse(disabled.shouldShed(100));
+  }
+}
@@ -0,0 +1,137 @@
+package market.fleaMarket.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fleamarket.config.RateLimitProperties;
+import com.fleamarket.filter.LoadShedder;
+import com.fleamarket.filter.RateLimitFilter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RateLimitFilterTest {
+  @Mock private LoadShedder loadShedder;
+
+  private RateLimitProperties properties;
+  private SimpleMeterRegistry meterRegistry;
+
+  @BeforeEach
+  public void setup() {
+    properties = new RateLimitProperties();
+    properties.setRatePerSecond(0.001);
+    properties.setCapacity(2);
+    RateLimitProperties.Endpoint search = new RateLimitProperties.Endpoint();
+    search.setPath("/products/search");
+    search.setCost(5);
+    properties.getEndpoints().put("search", search);
+    RateLimitProperties.Endpoint export = new RateLimitProperties.Endpoint();
+    export.setPath("/sellers/exportSellerProducts");
+    export.setRatePerSecond(0.001);
+    properties.getEndpoints().put("export", export);
+    meterRegistry = new SimpleMeterRegistry();
+  }
+
+  @Test
+  void testLimitsEachClientSeparately() throws Exception {
+    RateLimitFilter filter = filter();
+
+    assertEquals(200, send(filter, "/sellers/getSellersPage", "10.0.0.1", null).getStatus());
+    assertEquals(200, send(filter, "/sellers/getSellersPage", "10.0.0.1", null).getStatus());
+    MockHttpServletResponse limited = send(filter, "/sellers/getSellersPage", "10.0.0.1", null);
+    assertEquals(429, limited.getStatus());
+    assertNotNull(limited.getHeader("Retry-After"));
+    assertEquals(200, send(filter, "/sellers/getSellersPage", "10.0.0.2", null).getStatus());
+    assertEquals(
+        1, meterRegistry.counter("fleamarket.ratelimit.rejected", "endpoint", "default").count());
+  }
+
+  @Test
+  void testRequestCostingMoreThanCapacityIsLimited() throws Exception {
+    assertEquals(429, send(filter(), "/products/search", "10.0.0.1", null).getStatus());
+  }
+
+  @Test
+  void testEndpointBucketIsSeparate() throws Exception {
+    RateLimitFilter filter = filter();
+
+    assertEquals(200, send(filter, "/sellers/exportSellerProducts", "10.0.0.1", null).getStatus());
+    assertEquals(429, send(filter, "/sellers/exportSellerProducts", "10.0.0.1", null).getStatus());
+    assertEquals(200, send(filter, "/sellers/getSellersPage", "10.0.0.1", null).getStatus());
+  }
+
+  @Test
+  void testEndpointTokenIsRefundedWhenClientIsLimited() throws Exception {
+    properties.setRatePerSecond(2);
+    properties.getEndpoints().get("export").setCost(2);
+    RateLimitFilter filter = filter();
+
+    assertEquals(200, send(filter, "/sellers/getSellersPage", "10.0.0.1", null).getStatus());
+    assertEquals(429, send(filter, "/sellers/exportSellerProducts", "10.0.0.1", null).getStatus());
+    Thread.sleep(1100);
+    assertEquals(200, send(filter, "/sellers/exportSellerProducts", "10.0.0.1", null).getStatus());
+  }
+
+  @Test
+  void testLongRequestsAreLeftOutOfSheddingLatency() throws Exception {
+    properties.getEndpoints().get("export").setSheddingLatency(false);
+    RateLimitFilter filter = filter();
+
+    send(filter, "/sellers/exportSellerProducts", "10.0.0.1", null);
+    verify(loadShedder, never()).record(anyLong());
+    send(filter, "/sellers/getSellersPage", "10.0.0.1", null);
+    verify(loadShedder).record(anyLong());
+  }
+
+  @Test
+  void testClientHeaderIdentifiesClientsBehindProxy() throws Exception {
+    properties.setClientHeader("CF-Connecting-IP");
+    RateLimitFilter filter = filter();
+
+    for (int i = 0; i < 2; i++) {
+      assertEquals(200, send(filter, "/sellers/getSellersPage", "10.0.0.9", "1.1.1.1").getStatus());
+    }
+    assertEquals(429, send(filter, "/sellers/getSellersPage", "10.0.0.9", "1.1.1.1").getStatus());
+    assertEquals(200, send(filter, "/sellers/getSellersPage", "10.0.0.9", "2.2.2.2").getStatus());
+  }
+
+  @Test
+  void testShedsExpensiveRequestsWhenOverloaded() throws Exception {
+    when(loadShedder.shouldShed(anyLong()))
+        .thenAnswer(invocation -> invocation.getArgument(0, Long.class) >= 5);
+    RateLimitFilter filter = filter();
+
+    assertEquals(503, send(filter, "/products/search", "10.0.0.1", null).getStatus());
+    assertEquals(200, send(filter, "/sellers/getSellersPage", "10.0.0.1", null).getStatus());
+    assertEquals(1, meterRegistry.counter("fleamarket.shedding.rejected").count());
+  }
+
+  private RateLimitFilter filter() {
+    return new RateLimitFilter(
+        properties, loadShedder, new ObjectMapper().findAndRegisterModules(), meterRegistry);
+  }
+
+  private static MockHttpServletResponse send(
+      RateLimitFilter filter, String uri, String remoteAddr, String clientHeader)
+      throws Exception {
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+    request.setRemoteAddr(remoteAddr);
+    if (clientHeader != null) {
+      request.addHeader("CF-Connecting-IP", clientHeader);
+    }
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    filter.doFilter(request, response, (req, res) -> {});
+    return response;
+  }
+}
@@ -0,0 +1,78 @@
+package market.fleaMarket.filter;
+
+import com.fleamarket.filter.TokenBucket;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBucketTest {
+  private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+  @Test
+  void testBurstUpToCapacity() {
+    TokenBucket bucket = new TokenBucket(10, 5, 0);
+
+    for (int i = 0; i < 5; i++) {
+      assertEquals(0, bucket.tryConsume(1, 0));
+    }
+    assertEquals(SECOND / 10, bucket.tryConsume(1, 0));
+  }
+
+  @Test
+  void testRefillsOverTime() {
+    TokenBucket bucket = new TokenBucket(10, 5, 0);
+    assertEquals(0, bucket.tryConsume(5, 0));
+
+    assertTrue(bucket.tryConsume(2, SECOND / 10) > 0);
+    assertEquals(0, bucket.tryConsume(2, SECOND / 5));
+  }
+
+  @Test
+  void testCostlierRequestsWaitLonger() {
+    TokenBucket bucket = new TokenBucket(10, 5, 0);
+
+    assertEquals(SECOND / 10, bucket.tryConsume(6, 0));
+    assertEquals(0, bucket.tryConsume(5, 0));
+  }
+
+  @Test
+  void testRefundedTokensCanBeTakenAgain() {
+    TokenBucket bucket = new TokenBucket(10, 5, 0);
+    assertEquals(0, bucket.tryConsume(5, 0));
+
+    bucket.refund(2);
+
+    assertEquals(0, bucket.tryConsume(2, 0));
+    assertTrue(bucket.tryConsume(1, 0) > 0);
+  }
+
+  @Test
+  void testIdleBucketDoesNotSaveBeyondCapacity() {
+    TokenBucket bucket = new TokenBucket(10, 5, 0);
+
+    assertEquals(0, bucket.tryConsume(5, 60 * SECOND));
+    assertTrue(bucket.tryConsume(1, 60 * SECOND) > 0);
+  }
+
+  @Test
+  void testConcurrentConsumersNeverExceedCapacity() {
+    TokenBucket bucket = new TokenBucket(1, 100, 0);
+    AtomicInteger granted = new AtomicInteger();
+
+    IntStream.range(0, 1000)
+        .parallel()
+        .forEach(
+            i -> {
+              if (bucket.tryConsume(1, 0) == 0) {
+                granted.incrementAndGet();
+              }
+            });
+
+    assertEquals(100, granted.get());
+  }
+}
@@ -0,0 +1,102 @@
+package market.fleaMarket.outbox;
+
+import com.fleamarket.dao.CatalogStampRepository;
+import com.fleamarket.dao.OutboxEventRepository;
+import com.fleamarket.model.dto.ChangeEvent;
+import com.fleamarket.model.entity.CatalogStamp;
+import com.fleamarket.model.entity.OutboxEvent;
+import com.fleamarket.outbox.InMemoryChangeEventSink;
+import com.fleamarket.outbox.OutboxPublisher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OutboxPublisherTest {
+  private static final PageRequest BATCH = PageRequest.of(0, 10);
+
+  @Mock private OutboxEventRepository outboxEventRepository;
+  @Mock private CatalogStampRepository catalogStampRepository;
+  @Mock private PlatformTransactionManager transactionManager;
+  private InMemoryChangeEventSink sink;
+  private OutboxPublisher outboxPublisher;
+
+  @BeforeEach
+  public void setup() {
+    MockitoAnnotations.openMocks(this);
+    sink = new InMemoryChangeEventSink();
+    outboxPublisher =
+        new OutboxPublisher(
+            outboxEventRepository,
+            catalogStampRepository,
+            sink,
+            transactionManager,
+            new SimpleMeterRegistry(),
+            10,
+            5);
+  }
+
+  @Test
+  void testDrain_PositionsEventsFromReservedRange() {
+    List<OutboxEvent> events = List.of(event(60L), event(11L), event(12L));
+    when(outboxEventRepository.lockUnpositioned(BATCH)).thenReturn(events);
+    when(catalogStampRepository.addToVersion(CatalogStamp.OUTBOX, 3)).thenReturn(1);
+    when(catalogStampRepository.findVersion(CatalogStamp.OUTBOX)).thenReturn(Optional.of(13L));
+
+    outboxPublisher.drain();
+
+    assertEquals(11L, events.get(0).getPosition());
+    assertEquals(12L, events.get(1).getPosition());
+    assertEquals(13L, events.get(2).getPosition());
+  }
+
+  @Test
+  void testDrain_CreatesMissingOutboxStamp() {
+    List<OutboxEvent> events = List.of(event(1L), event(2L));
+    when(outboxEventRepository.lockUnpositioned(BATCH)).thenReturn(events);
+
+    outboxPublisher.drain();
+
+    ArgumentCaptor<CatalogStamp> captor = ArgumentCaptor.forClass(CatalogStamp.class);
+    verify(catalogStampRepository).saveAndFlush(captor.capture());
+    assertEquals(CatalogStamp.OUTBOX, captor.getValue().getScope());
+    assertEquals(2L, captor.getValue().getVersion());
+    assertEquals(1L, events.get(0).getPosition());
+    assertEquals(2L, events.get(1).getPosition());
+  }
+
+  @Test
+  void testDrain_PublishesPositionedEvents() {
+    OutboxEvent event = event(60L);
+    event.setPosition(11L);
+    when(outboxEventRepository.lockUnpublished(BATCH)).thenReturn(List.of(event));
+
+    outboxPublisher.drain();
+
+    assertEquals(List.of(event.toChangeEvent()), sink.getEvents());
+    verify(outboxEventRepository).markPublished(any(), any());
+  }
+
+  private static OutboxEvent event(Long id) {
+    return OutboxEvent.builder()
+        .id(id)
+        .type(ChangeEvent.Type.SELLER_CREATED)
+        .sellerId(1L)
+        .sellerName("seller")
+        .occurredAt(Instant.parse("2024-07-01T12:00:00Z"))
+        .build();
+  }
+}
@@ -0,0 +1,227 @@
+package market.fleaMarket.service;
+
+import com.fleamarket.exception.OverloadedException;
+import com.fleamarket.exception.ProductNotFoundException;
+import com.fleamarket.filter.DatabasePermits;
+import com.fleamarket.model.dto.SellerSummary;
+import com.fleamarket.service.CoalescingReadService;
+import com.fleamarket.service.ProductService;
+import com.fleamarket.service.SellerService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CoalescingReadServiceTest {
+  private static final Long PRODUCT_ID = 10L;
+  private static final SellerSummary SELLER = new SellerSummary(1L, "seller");
+  private static final int PERMITS = 2;
+  private static final int WAITERS = 10;
+
+  @Mock private SellerService sellerService;
+  @Mock private ProductService productService;
+
+  @InjectMocks private CoalescingReadService coalescingReadService;
+  private SimpleMeterRegistry registry;
+  private DatabasePermits databasePermits;
+  private ExecutorService executor;
+
+  @BeforeEach
+  public void setup() {
+    MockitoAnnotations.openMocks(this);
+    registry = new SimpleMeterRegistry();
+    coalescingReadService.bindTo(registry);
+    databasePermits = new DatabasePermits(PERMITS, Duration.ofMillis(100), registry);
+    coalescingReadService.setDatabasePermits(databasePermits);
+    executor = Executors.newFixedThreadPool(WAITERS + 1);
+  }
+
+  @AfterEach
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  void testConcurrentLoadsAreCollapsed() throws Exception {
+    CountDownLatch loading = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    when(productService.getSellerByProductId(PRODUCT_ID))
+        .thenAnswer(
+            invocation -> {
+              loading.countDown();
+              release.await(5, TimeUnit.SECONDS);
+              return SELLER;
+            });
+
+    Future<SellerSummary> first =
+        executor.submit(() -> coalescingReadService.getSellerByProductId(PRODUCT_ID));
+    assertTrue(loading.await(5, TimeUnit.SECONDS));
+    Future<SellerSummary> second =
+        executor.submit(() -> coalescingReadService.getSellerByProductId(PRODUCT_ID));
+    while (collapsed() == 0) {
+      Thread.sleep(1);
+    }
+    release.countDown();
+
+    assertEquals(SELLER, first.get(5, TimeUnit.SECONDS));
+    assertEquals(SELLER, second.get(5, TimeUnit.SECONDS));
+    verify(productService, times(1)).getSellerByProductId(PRODUCT_ID);
+    assertEquals(1.0, loads());
+  }
+
+  @Test
+  void testWaitersDoNotHoldPermits() throws Exception {
+    CountDownLatch loading = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    when(productService.getSellerByProductId(PRODUCT_ID))
+        .thenAnswer(
+            invocation -> {
+              loading.countDown();
+              release.await(5, TimeUnit.SECONDS);
+              return SELLER;
+            });
+    when(productService.getSellerByProductId(PRODUCT_ID + 1)).thenReturn(SELLER);
+
+    Future<SellerSummary> first =
+        executor.submit(() -> coalescingReadService.getSellerByProductId(PRODUCT_ID));
+    assertTrue(loading.await(5, TimeUnit.SECONDS));
+    List<Future<SellerSummary>> waiters = new ArrayList<>();
+    for (int i = 0; i < WAITERS; i++) {
+      waiters.add(executor.submit(() -> coalescingReadService.getSellerByProductId(PRODUCT_ID)));
+    }
+    while (collapsed() < WAITERS) {
+      Thread.sleep(1);
+    }
+    // More callers wait than there are permits, yet another key still gets one
+    assertEquals(SELLER, coalescingReadService.getSellerByProductId(PRODUCT_ID + 1));
+    assertEquals(1.0, registry.get("fleamarket.concurrency.in.flight").gauge().value());
+    release.countDown();
+
+    assertEquals(SELLER, first.get(5, TimeUnit.SECONDS));
+    for (Future<SellerSummary> waiter : waiters) {
+      assertEquals(SELLER, waiter.get(5, TimeUnit.SECONDS));
+    }
+    verify(productService, times(1)).getSellerByProductId(PRODUCT_ID);
+    assertEquals(0.0, registry.get("fleamarket.concurrency.rejected").counter().count());
+  }
+
+  @Test
+  void testLoadWithoutPermitIsRejected() throws Exception {
+    CountDownLatch loading = new CountDownLatch(PERMITS);
+    CountDownLatch release = new CountDownLatch(1);
+    when(productService.getSellerByProductId(anyLong()))
+        .thenAnswer(
+            invocation -> {
+              loading.countDown();
+              release.await(5, TimeUnit.SECONDS);
+              return SELLER;
+            });
+    List<Future<SellerSummary>> loads = new ArrayList<>();
+    for (long i = 0; i < PERMITS; i++) {
+      long productId = PRODUCT_ID + i;
+      loads.add(executor.submit(() -> coalescingReadService.getSellerByProductId(productId)));
+    }
+    assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+    assertThrows(
+        OverloadedException.class,
+        () -> coalescingReadService.getSellerByProductId(PRODUCT_ID + PERMITS));
+    release.countDown();
+    for (Future<SellerSummary> load : loads) {
+      assertEquals(SELLER, load.get(5, TimeUnit.SECONDS));
+    }
+  }
+
+  @Test
+  void testCacheHitTakesNoPermit() {
+    when(productService.getCachedSellerByProductId(PRODUCT_ID)).thenReturn(Optional.of(SELLER));
+    for (int i = 0; i < PERMITS; i++) {
+      assertTrue(databasePermits.tryAcquire());
+    }
+
+    assertEquals(SELLER, coalescingReadService.getSellerByProductId(PRODUCT_ID));
+
+    verify(productService, never()).getSellerByProductId(anyLong());
+    assertEquals(0.0, registry.get("fleamarket.concurrency.rejected").counter().count());
+  }
+
+  @Test
+  void testKnownMissingProductTakesNoPermit() {
+    when(productService.getCachedSellerByProductId(PRODUCT_ID))
+        .thenThrow(new ProductNotFoundException("missing"));
+    for (int i = 0; i < PERMITS; i++) {
+      assertTrue(databasePermits.tryAcquire());
+    }
+
+    assertThrows(
+        ProductNotFoundException.class,
+        () -> coalescingReadService.getSellerByProductId(PRODUCT_ID));
+
+    verify(productService, never()).getSellerByProductId(anyLong());
+    assertEquals(0.0, loads());
+  }
+
+  @Test
+  void testSequentialLoadsAreNotShared() {
+    when(productService.getSellerByProductId(PRODUCT_ID)).thenReturn(SELLER);
+
+    coalescingReadService.getSellerByProductId(PRODUCT_ID);
+    coalescingReadService.getSellerByProductId(PRODUCT_ID);
+
+    verify(productService, times(2)).getSellerByProductId(PRODUCT_ID);
+    assertEquals(0.0, collapsed());
+  }
+
+  @Test
+  void testFailedLoadIsRethrownAndForgotten() {
+    when(productService.getSellerByProductId(PRODUCT_ID))
+        .thenThrow(new ProductNotFoundException("missing"))
+        .thenReturn(SELLER);
+
+    assertThrows(
+        ProductNotFoundException.class,
+        () -> coalescingReadService.getSellerByProductId(PRODUCT_ID));
+    assertEquals(SELLER, coalescingReadService.getSellerByProductId(PRODUCT_ID));
+  }
+
+  private double loads() {
+    return registry
+        .get("fleamarket.singleflight.loads")
+        .tag("name", "product-seller")
+        .functionCounter()
+        .count();
+  }
+
+  private double collapsed() {
+    return registry
+        .get("fleamarket.singleflight.collapsed")
+        .tag("name", "product-seller")
+        .functionCounter()
+        .count();
+  }
+}
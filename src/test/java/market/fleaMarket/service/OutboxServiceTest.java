@@ -0,0 +1,89 @@
+package market.fleaMarket.service;
+
+import com.fleamarket.dao.OutboxEventRepository;
+import com.fleamarket.model.dto.ChangeEvent;
+import com.fleamarket.model.dto.ChangeFeed;
+import com.fleamarket.model.entity.OutboxEvent;
+import com.fleamarket.service.OutboxService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxServiceTest {
+  private static final Instant NOW = Instant.parse("2024-07-01T12:00:00Z");
+
+  @Mock private OutboxEventRepository outboxEventRepository;
+
+  @InjectMocks private OutboxService outboxService;
+
+  @BeforeEach
+  public void setup() {
+    MockitoAnnotations.openMocks(this);
+    outboxService.setClock(Clock.fixed(NOW, ZoneOffset.UTC));
+  }
+
+  @Test
+  void testProductRenamed_RecordsEvent() {
+    outboxService.productRenamed(1L, "seller", "oldName", "newName");
+
+    ArgumentCaptor<OutboxEvent> captor = ArgumentCaptor.forClass(OutboxEvent.class);
+    verify(outboxEventRepository).save(captor.capture());
+    OutboxEvent event = captor.getValue();
+    assertEquals(ChangeEvent.Type.PRODUCT_RENAMED, event.getType());
+    assertEquals(1L, event.getSellerId());
+    assertEquals("newName", event.getProductName());
+    assertEquals("oldName", event.getPreviousName());
+    assertEquals(NOW, event.getOccurredAt());
+  }
+
+  @Test
+  void testGetChanges_ReturnsPositionOfLastEvent() {
+    List<ChangeEvent> events =
+        List.of(
+            new ChangeEvent(
+                60L, 11L, ChangeEvent.Type.SELLER_CREATED, 1L, "a", null, null, null, NOW),
+            new ChangeEvent(
+                12L, 12L, ChangeEvent.Type.SELLER_DELETED, 1L, "a", null, null, null, NOW));
+    when(outboxEventRepository.findChanges(10L, PageRequest.of(0, 100))).thenReturn(events);
+
+    ChangeFeed feed = outboxService.getChanges(10L, null);
+
+    assertEquals(events, feed.getEvents());
+    assertEquals(12L, feed.getCursor());
+  }
+
+  @Test
+  void testGetChanges_KeepsCursorWhenNothingChanged() {
+    when(outboxEventRepository.findChanges(10L, PageRequest.of(0, 5))).thenReturn(List.of());
+
+    ChangeFeed feed = outboxService.getChanges(10L, 5);
+
+    assertTrue(feed.getEvents().isEmpty());
+    assertEquals(10L, feed.getCursor());
+  }
+
+  @Test
+  void testGetChanges_InvalidArguments() {
+    assertThrows(IllegalArgumentException.class, () -> outboxService.getChanges(-1L, null));
+    assertThrows(IllegalArgumentException.class, () -> outboxService.getChanges(0L, 0));
+    assertThrows(IllegalArgumentException.class, () -> outboxService.getChanges(0L, 1001));
+  }
+}
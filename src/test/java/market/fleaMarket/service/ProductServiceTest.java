@@ -1,23 +1,33 @@
 package market.fleaMarket.service;
 
+import com.fleamarket.cache.ProductSellerCache;
 import com.fleamarket.dao.ProductRepository;
 import com.fleamarket.exception.ProductNotFoundException;
-import com.fleamarket.model.entity.Product;
-import com.fleamarket.model.entity.Seller;
+import com.fleamarket.model.dto.ProductSearchHit;
+import com.fleamarket.model.dto.ProductSearchPage;
+import com.fleamarket.model.dto.SellerSummary;
 import com.fleamarket.service.ProductService;
-import com.fleamarket.service.SellerService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Duration;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -28,38 +38,101 @@ class ProductServiceTest {
 
   @Mock private ProductRepository productRepository;
 
+  @Spy
+  private ProductSellerCache productSellerCache =
+      new ProductSellerCache(100, Duration.ofMinutes(10), 100, Duration.ofSeconds(30));
+
   @InjectMocks private ProductService productService;
 
-  private Product existingProduct;
-  private Seller existingSeller;
+  private SellerSummary existingSeller;
 
   @BeforeEach
   public void setup() {
     MockitoAnnotations.openMocks(this);
-    setupProductAndSeller();
+    existingSeller = new SellerSummary(1L, "existingSeller");
   }
 
-  private void setupProductAndSeller() {
-    existingSeller = new Seller();
-    existingSeller.setSellerName("existingSeller");
-
-    existingProduct = new Product();
-    existingProduct.setId(1L);
-    existingProduct.setProductName("existingProduct");
-    existingProduct.setSeller(existingSeller);
+  @Test
+  void testGetSellerByProductId_Success() {
+    when(productRepository.findSellerSummaryByProductId(existingProductId))
+        .thenReturn(Optional.of(existingSeller));
+    SellerSummary seller = productService.getSellerByProductId(existingProductId);
+    assertEquals(existingSeller, seller);
   }
 
   @Test
-  void testGetSellerByProductId_Success() {
-    when(productRepository.findProductById(existingProductId))
-        .thenReturn(Optional.of(existingProduct));
-    Seller seller = productService.getSellerByProductId(existingProductId);
+  void testGetSellerByProductId_Cached() {
+    when(productRepository.findSellerSummaryByProductId(existingProductId))
+        .thenReturn(Optional.of(existingSeller));
+
+    productService.getSellerByProductId(existingProductId);
+    SellerSummary seller = productService.getSellerByProductId(existingProductId);
+
     assertEquals(existingSeller, seller);
+    verify(productRepository, times(1)).findSellerSummaryByProductId(existingProductId);
+  }
+
+  @Test
+  void testGetCachedSellerByProductId_MissDoesNotLoad() {
+    assertTrue(productService.getCachedSellerByProductId(existingProductId).isEmpty());
+
+    verify(productRepository, never()).findSellerSummaryByProductId(existingProductId);
+  }
+
+  @Test
+  void testGetCachedSellerByProductId_UnknownProduct() {
+    when(productRepository.findSellerSummaryByProductId(nonexistingProductId))
+        .thenReturn(Optional.empty());
+    assertThrows(
+        ProductNotFoundException.class,
+        () -> productService.getSellerByProductId(nonexistingProductId));
+
+    assertThrows(
+        ProductNotFoundException.class,
+        () -> productService.getCachedSellerByProductId(nonexistingProductId));
+  }
+
+  @Test
+  void testGetSellerByProductId_SellerEvicted() {
+    when(productRepository.findSellerSummaryByProductId(existingProductId))
+        .thenReturn(Optional.of(existingSeller));
+    productService.getSellerByProductId(existingProductId);
+
+    productSellerCache.evictSeller(existingSeller.getId());
+    productService.getSellerByProductId(existingProductId);
+
+    verify(productRepository, times(2)).findSellerSummaryByProductId(existingProductId);
+  }
+
+  @Test
+  void testGetSellerByProductId_EvictionDuringLoadIsNotCached() {
+    // The seller is renamed while its old name is being read
+    when(productRepository.findSellerSummaryByProductId(existingProductId))
+        .thenAnswer(
+            invocation -> {
+              productSellerCache.evictSeller(existingSeller.getId());
+              return Optional.of(existingSeller);
+            });
+
+    productService.getSellerByProductId(existingProductId);
+
+    assertTrue(productSellerCache.get(existingProductId).isEmpty());
+  }
+
+  @Test
+  void testGetSellerEtag_ChangesWithSellerName() {
+    String etag = productService.getSellerEtag(existingProductId, existingSeller);
+
+    assertEquals(etag, productService.getSellerEtag(existingProductId, existingSeller));
+    assertNotEquals(
+        etag,
+        productService.getSellerEtag(existingProductId, new SellerSummary(1L, "renamedSeller")));
   }
 
   @Test
   void testGetSellerByProductId_ProductNotFound() {
-    when(productRepository.findProductById(nonexistingProductId)).thenReturn(Optional.empty());
+    when(productRepository.findSellerSummaryByProductId(nonexistingProductId))
+        .thenReturn(Optional.empty());
 
     ProductNotFoundException exception =
         assertThrows(
@@ -68,4 +141,81 @@ class ProductServiceTest {
     assertEquals(
         String.format(PRODUCT_NOT_FOUND_MESSAGE, nonexistingProductId), exception.getMessage());
   }
+
+  @Test
+  void testGetSellerByProductId_UnknownProductCached() {
+    when(productRepository.findSellerSummaryByProductId(nonexistingProductId))
+        .thenReturn(Optional.empty());
+
+    assertThrows(
+        ProductNotFoundException.class,
+        () -> productService.getSellerByProductId(nonexistingProductId));
+    assertThrows(
+        ProductNotFoundException.class,
+        () -> productService.getSellerByProductId(nonexistingProductId));
+
+    verify(productRepository, times(1)).findSellerSummaryByProductId(nonexistingProductId);
+  }
+
+  @Test
+  void testSearchProducts_NextPage() {
+    when(productRepository.searchProducts("phone", "phone%", 2f, 0L, 1000, 2))
+        .thenReturn(List.of(hit(1L, "phone", 1f), hit(2L, "phones", 0.5f)));
+    when(productRepository.searchProducts("phone", "phone%", 1f, 1L, 1000, 2))
+        .thenReturn(List.of(hit(2L, "phones", 0.5f)));
+
+    ProductSearchPage page = productService.searchProducts(" phone ", null, 1);
+    ProductSearchPage nextPage = productService.searchProducts("phone", page.getNextToken(), 1);
+
+    assertEquals(1, page.getHits().size());
+    assertEquals("phone", page.getHits().get(0).getProductName());
+    assertEquals("phones", nextPage.getHits().get(0).getProductName());
+    assertNull(nextPage.getNextToken());
+  }
+
+  @Test
+  void testSearchProducts_EscapesLikeWildcards() {
+    when(productRepository.searchProducts("50%_off", "50\\%\\_off%", 2f, 0L, 1000, 21))
+        .thenReturn(List.of());
+
+    ProductSearchPage page = productService.searchProducts("50%_off", null, null);
+
+    assertEquals(0, page.getHits().size());
+  }
+
+  @Test
+  void testSearchProducts_QueryTooShort() {
+    assertThrows(
+        IllegalArgumentException.class, () -> productService.searchProducts("a", null, null));
+  }
+
+  @Test
+  void testSearchProducts_LimitTooLarge() {
+    assertThrows(
+        IllegalArgumentException.class, () -> productService.searchProducts("phone", null, 101));
+  }
+
+  private static ProductSearchHit hit(Long id, String productName, Float score) {
+    return new ProductSearchHit() {
+      @Override
+      public Long getId() {
+        return id;
+      }
+
+      @Override
+      public String getProductName() {
+        return productName;
+      }
+
+      @Override
+      public String getSellerName() {
+        return "existingSeller";
+      }
+
+      @Override
+      public Float getScore() {
+        return score;
+      }
+    };
+  }
 }
@@ -0,0 +1,127 @@
+package market.fleaMarket.service;
+
+import com.fleamarket.dao.OutboxEventRepository;
+import com.fleamarket.dao.ProductRepository;
+import com.fleamarket.service.PurgeService;
+import com.fleamarket.service.SellerDeletionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PurgeServiceTest {
+  private static final Duration RETENTION = Duration.ofDays(1);
+  private static final Duration OUTBOX_RETENTION = Duration.ofDays(7);
+  private static final PageRequest BATCH = PageRequest.of(0, 2);
+
+  @Mock private ProductRepository productRepository;
+  @Mock private OutboxEventRepository outboxEventRepository;
+  @Mock private SellerDeletionService sellerDeletionService;
+  @Mock private PlatformTransactionManager transactionManager;
+
+  private SimpleMeterRegistry meterRegistry;
+  private PurgeService purgeService;
+
+  @BeforeEach
+  public void setup() {
+    MockitoAnnotations.openMocks(this);
+    meterRegistry = new SimpleMeterRegistry();
+    purgeService =
+        new PurgeService(
+            productRepository,
+            outboxEventRepository,
+            sellerDeletionService,
+            transactionManager,
+            meterRegistry,
+            RETENTION,
+            OUTBOX_RETENTION,
+            2,
+            3);
+  }
+
+  @Test
+  void testPurge_DeletesInBatchesUntilShortBatch() {
+    Instant before = Instant.now().minus(RETENTION);
+    when(productRepository.findPurgeableProductIds(any(), eq(2)))
+        .thenReturn(List.of(1L, 2L))
+        .thenReturn(List.of(3L));
+    when(productRepository.purgeProductsByIds(List.of(1L, 2L))).thenReturn(2);
+    when(productRepository.purgeProductsByIds(List.of(3L))).thenReturn(1);
+
+    purgeService.purge();
+
+    verify(productRepository, times(2))
+        .findPurgeableProductIds(argThat(cutoff -> !cutoff.isBefore(before)), eq(2));
+    verify(sellerDeletionService).retryFailed();
+    assertEquals(3, meterRegistry.counter("fleamarket.purge.products").count());
+  }
+
+  @Test
+  void testPurge_StopsAfterMaxBatches() {
+    when(productRepository.findPurgeableProductIds(any(), eq(2))).thenReturn(List.of(1L, 2L));
+    when(productRepository.purgeProductsByIds(List.of(1L, 2L))).thenReturn(2);
+
+    purgeService.purge();
+
+    verify(productRepository, times(3)).purgeProductsByIds(List.of(1L, 2L));
+  }
+
+  @Test
+  void testPurge_FailureIsCountedAndJobsStillRetried() {
+    when(productRepository.findPurgeableProductIds(any(), eq(2)))
+        .thenThrow(new IllegalStateException("lock timeout"));
+
+    purgeService.purge();
+
+    verify(sellerDeletionService).retryFailed();
+    assertEquals(1, meterRegistry.counter("fleamarket.purge.failures").count());
+  }
+
+  @Test
+  void testPurge_DeletesPublishedOutboxEventsPastRetention() {
+    Instant before = Instant.now().minus(OUTBOX_RETENTION);
+    when(outboxEventRepository.findPublishedBefore(any(), eq(BATCH)))
+        .thenReturn(List.of(1L, 2L))
+        .thenReturn(List.of());
+    when(outboxEventRepository.deleteByIds(List.of(1L, 2L))).thenReturn(2);
+
+    purgeService.purge();
+
+    verify(outboxEventRepository, times(2))
+        .findPublishedBefore(
+            argThat(cutoff -> !cutoff.isBefore(before) && cutoff.isBefore(Instant.now())),
+            eq(BATCH));
+    assertEquals(2, meterRegistry.counter("fleamarket.purge.outbox.events").count());
+  }
+
+  @Test
+  void testPurge_OutboxFailureDoesNotStopProductPurge() {
+    when(productRepository.findPurgeableProductIds(any(), eq(2))).thenReturn(List.of(1L));
+    when(outboxEventRepository.findPublishedBefore(any(), eq(BATCH)))
+        .thenThrow(new IllegalStateException("lock timeout"));
+
+    purgeService.purge();
+
+    verify(productRepository).purgeProductsByIds(List.of(1L));
+    verify(sellerDeletionService).retryFailed();
+    assertEquals(1, meterRegistry.counter("fleamarket.purge.failures").count());
+  }
+}
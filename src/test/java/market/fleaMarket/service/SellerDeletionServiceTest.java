@@ -0,0 +1,178 @@
+package market.fleaMarket.service;
+
+import com.fleamarket.cache.ProductSellerCache;
+import com.fleamarket.dao.ProductRepository;
+import com.fleamarket.dao.SellerDeletionJobRepository;
+import com.fleamarket.dao.SellerRepository;
+import com.fleamarket.exception.DeletionJobNotFoundException;
+import com.fleamarket.model.dto.SellerDeletionStatus;
+import com.fleamarket.model.entity.SellerDeletionJob;
+import com.fleamarket.service.SellerDeletionService;
+import com.fleamarket.service.SuggestionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SellerDeletionServiceTest {
+  private static final Instant NOW = Instant.parse("2024-07-01T12:00:00Z");
+  private static final Long JOB_ID = 7L;
+  private static final Long SELLER_ID = 1L;
+  private static final int CHUNK = 2;
+
+  @Mock private SellerRepository sellerRepository;
+  @Mock private ProductRepository productRepository;
+  @Mock private SellerDeletionJobRepository sellerDeletionJobRepository;
+  @Mock private ProductSellerCache productSellerCache;
+  @Mock private SuggestionService suggestionService;
+  @Mock private PlatformTransactionManager transactionManager;
+
+  @InjectMocks private SellerDeletionService sellerDeletionService;
+
+  @BeforeEach
+  public void setup() {
+    MockitoAnnotations.openMocks(this);
+    sellerDeletionService.setTransactionManager(transactionManager);
+    sellerDeletionService.setExecutor(Runnable::run);
+    sellerDeletionService.setClock(Clock.fixed(NOW, ZoneOffset.UTC));
+    sellerDeletionService.setChunkSize(2);
+  }
+
+  @Test
+  void testRun_DeletesProductsInChunks() {
+    when(sellerDeletionJobRepository.findById(JOB_ID))
+        .thenReturn(Optional.of(job(SellerDeletionStatus.Status.RUNNING)));
+    when(productRepository.findProductIdChunk(SELLER_ID, CHUNK))
+        .thenReturn(List.of(1L, 2L))
+        .thenReturn(List.of(3L))
+        .thenReturn(List.of());
+    when(productRepository.findProductNamesByIds(List.of(1L, 2L)))
+        .thenReturn(List.of("first", "second"));
+    // Product 3 was soft-deleted earlier, so its name already left the index
+    when(productRepository.findProductNamesByIds(List.of(3L))).thenReturn(List.of());
+
+    sellerDeletionService.run(JOB_ID, true);
+
+    verify(sellerDeletionJobRepository).addDeletedProducts(JOB_ID, 2, NOW);
+    verify(sellerDeletionJobRepository).addDeletedProducts(JOB_ID, 0, NOW);
+    verify(suggestionService).productsRemoved(SELLER_ID, List.of("first", "second"));
+    verify(suggestionService).productsRemoved(SELLER_ID, List.of());
+    verify(sellerRepository).deleteSellerById(SELLER_ID);
+    verify(sellerDeletionJobRepository)
+        .updateStatus(JOB_ID, SellerDeletionStatus.Status.COMPLETED, null, NOW, NOW);
+  }
+
+  @Test
+  void testStart_TakesTotalFromProductCount() {
+    when(sellerRepository.findProductCount(SELLER_ID)).thenReturn(Optional.of(2L));
+    when(sellerDeletionJobRepository.save(any()))
+        .thenAnswer(
+            invocation -> {
+              SellerDeletionJob saved = invocation.getArgument(0);
+              saved.setId(JOB_ID);
+              return saved;
+            });
+    when(sellerDeletionJobRepository.findById(JOB_ID))
+        .thenReturn(Optional.of(job(SellerDeletionStatus.Status.RUNNING)));
+    when(productRepository.findProductIdChunk(SELLER_ID, CHUNK))
+        .thenReturn(List.of(1L, 2L))
+        .thenReturn(List.of(3L))
+        .thenReturn(List.of());
+    when(productRepository.findProductNamesByIds(List.of(1L, 2L)))
+        .thenReturn(List.of("first", "second"));
+    when(productRepository.findProductNamesByIds(List.of(3L))).thenReturn(List.of());
+
+    SellerDeletionStatus status = sellerDeletionService.start(SELLER_ID, "seller");
+
+    assertEquals(2, status.getTotalProducts());
+    verify(productRepository, never()).countProductsByIds(any());
+    verify(sellerDeletionJobRepository).addDeletedProducts(JOB_ID, 2, NOW);
+    verify(sellerDeletionJobRepository).addDeletedProducts(JOB_ID, 0, NOW);
+  }
+
+  @Test
+  void testRun_FailureMarksJobFailed() {
+    when(sellerDeletionJobRepository.findById(JOB_ID))
+        .thenReturn(Optional.of(job(SellerDeletionStatus.Status.RUNNING)));
+    when(productRepository.findProductIdChunk(SELLER_ID, CHUNK))
+        .thenThrow(new IllegalStateException("lock timeout"));
+
+    sellerDeletionService.run(JOB_ID, true);
+
+    verify(sellerRepository, never()).deleteSellerById(any());
+    verify(sellerDeletionJobRepository)
+        .updateStatus(JOB_ID, SellerDeletionStatus.Status.FAILED, "lock timeout", null, NOW);
+  }
+
+  @Test
+  void testResumeUnfinished_RetriesFailedJob() {
+    when(sellerDeletionJobRepository.findJobIdsByStatusNot(SellerDeletionStatus.Status.COMPLETED))
+        .thenReturn(List.of(JOB_ID));
+    when(sellerDeletionJobRepository.findById(JOB_ID))
+        .thenReturn(Optional.of(job(SellerDeletionStatus.Status.FAILED)));
+    when(productRepository.findProductIdChunk(SELLER_ID, CHUNK))
+        .thenReturn(List.of(3L))
+        .thenReturn(List.of());
+    when(productRepository.countProductsByIds(List.of(3L))).thenReturn(1L);
+
+    sellerDeletionService.resumeUnfinished();
+
+    verify(sellerDeletionJobRepository)
+        .updateStatus(JOB_ID, SellerDeletionStatus.Status.RUNNING, null, null, NOW);
+    verify(sellerDeletionJobRepository)
+        .updateStatus(JOB_ID, SellerDeletionStatus.Status.COMPLETED, null, NOW, NOW);
+    verify(sellerDeletionJobRepository).addDeletedProducts(JOB_ID, 1, NOW);
+    verify(suggestionService, never()).productsRemoved(any(), any());
+  }
+
+  @Test
+  void testRetryFailed_RunsFailedJobs() {
+    when(sellerDeletionJobRepository.findJobIdsByStatus(SellerDeletionStatus.Status.FAILED))
+        .thenReturn(List.of(JOB_ID));
+    when(sellerDeletionJobRepository.findById(JOB_ID))
+        .thenReturn(Optional.of(job(SellerDeletionStatus.Status.FAILED)));
+    when(productRepository.findProductIdChunk(SELLER_ID, CHUNK)).thenReturn(List.of());
+
+    assertEquals(1, sellerDeletionService.retryFailed());
+
+    verify(sellerRepository).deleteSellerById(SELLER_ID);
+    verify(sellerDeletionJobRepository)
+        .updateStatus(JOB_ID, SellerDeletionStatus.Status.COMPLETED, null, NOW, NOW);
+  }
+
+  @Test
+  void testGetStatus_NotFound() {
+    when(sellerDeletionJobRepository.findById(JOB_ID)).thenReturn(Optional.empty());
+
+    assertThrows(
+        DeletionJobNotFoundException.class, () -> sellerDeletionService.getStatus(JOB_ID));
+  }
+
+  private static SellerDeletionJob job(SellerDeletionStatus.Status status) {
+    SellerDeletionJob job = new SellerDeletionJob();
+    job.setId(JOB_ID);
+    job.setSellerId(SELLER_ID);
+    job.setSellerName("seller");
+    job.setStatus(status);
+    job.setCreatedAt(NOW);
+    return job;
+  }
+}
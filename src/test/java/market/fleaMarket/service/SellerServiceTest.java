@@ -1,26 +1,56 @@
 package market.fleaMarket.service;
 
+import com.fleamarket.cache.ProductSellerCache;
+import com.fleamarket.cache.SellerCache;
+import com.fleamarket.dao.CatalogStampRepository;
 import com.fleamarket.dao.ProductRepository;
 import com.fleamarket.dao.SellerRepository;
+import com.fleamarket.exception.ListingDisabledException;
 import com.fleamarket.exception.ProductNotFoundException;
 import com.fleamarket.exception.ProductTakenException;
 import com.fleamarket.exception.SellerNotFoundException;
 import com.fleamarket.exception.SellerTakenException;
+import com.fleamarket.model.dto.BulkAddItem;
+import com.fleamarket.model.dto.BulkAddResult;
+import com.fleamarket.model.dto.ProductView;
+import com.fleamarket.model.dto.SellerDeletionStatus;
+import com.fleamarket.model.dto.SellerPage;
+import com.fleamarket.model.dto.SellerProductCount;
+import com.fleamarket.model.dto.SellerSummary;
+import com.fleamarket.model.entity.CatalogStamp;
 import com.fleamarket.model.entity.Product;
 import com.fleamarket.model.entity.Seller;
+import com.fleamarket.service.OutboxService;
+import com.fleamarket.service.SellerDeletionService;
 import com.fleamarket.service.SellerService;
+import com.fleamarket.service.SuggestionService;
+import jakarta.persistence.EntityManager;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.sql.SQLException;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -33,24 +63,43 @@ class SellerServiceTest {
   private static final String EXISTING_PRODUCT_NAME = "existingProduct";
   private static final String NON_EXISTING_PRODUCT_NAME = "nonExistingProduct";
   private static final String NEW_PRODUCT_NAME = "newProduct";
+  private static final Long EXISTING_SELLER_ID = 1L;
+  private static final Long EXISTING_PRODUCT_ID = 10L;
   @Mock private SellerRepository sellerRepository;
   @Mock private ProductRepository productRepository;
+  @Mock private CatalogStampRepository catalogStampRepository;
+  @Mock private SuggestionService suggestionService;
+  @Mock private OutboxService outboxService;
+  @Mock private SellerDeletionService sellerDeletionService;
+  @Mock private EntityManager entityManager;
+  @Mock private PlatformTransactionManager transactionManager;
+  @Spy private SellerCache sellerCache = new SellerCache(100, Duration.ofMinutes(1));
+
+  @Spy
+  private ProductSellerCache productSellerCache =
+      new ProductSellerCache(100, Duration.ofMinutes(10), 100, Duration.ofSeconds(30));
+
   @InjectMocks private SellerService sellerService;
   private Seller existingSeller;
+  private SellerSummary existingSellerSummary;
   private Product existingProduct;
   private List<Product> products;
 
   @BeforeEach
   void setup() {
     MockitoAnnotations.openMocks(this);
+    sellerService.setTransactionManager(transactionManager);
     setupSellersAndProducts();
   }
 
   private void setupSellersAndProducts() {
     existingSeller = new Seller();
+    existingSeller.setId(EXISTING_SELLER_ID);
     existingSeller.setSellerName(EXISTING_SELLER_NAME);
+    existingSellerSummary = new SellerSummary(EXISTING_SELLER_ID, EXISTING_SELLER_NAME);
 
     existingProduct = new Product();
+    existingProduct.setId(EXISTING_PRODUCT_ID);
     existingProduct.setProductName(EXISTING_PRODUCT_NAME);
     existingProduct.setSeller(existingSeller);
 
@@ -62,35 +111,151 @@ class SellerServiceTest {
 
   @Test
   void testGetAllSellers() {
-    List<Seller> sellers = new ArrayList<>();
-    sellers.add(existingSeller);
-    when(sellerRepository.findAll()).thenReturn(sellers);
+    List<SellerSummary> sellers = new ArrayList<>();
+    sellers.add(existingSellerSummary);
+    sellerService.setUnboundedListingEnabled(true);
+    when(sellerRepository.findAllSellerSummaries()).thenReturn(sellers);
 
-    List<Seller> result = sellerService.getAllSellers();
+    List<SellerSummary> result = sellerService.getAllSellers();
 
     assertEquals(1, result.size());
-    verify(sellerRepository, times(1)).findAll();
+    verify(sellerRepository, times(1)).findAllSellerSummaries();
   }
 
   @Test
-  void testDeleteSeller_Success() {
-    when(sellerRepository.findSellerBySellerName(EXISTING_SELLER_NAME))
-        .thenReturn(Optional.of(existingSeller));
+  void testGetAllSellers_Disabled() {
+    assertThrows(ListingDisabledException.class, () -> sellerService.getAllSellers());
+
+    verify(sellerRepository, times(0)).findAllSellerSummaries();
+  }
+
+  @Test
+  void testGetTopSellers() {
+    List<SellerProductCount> top = List.of(new SellerProductCount(1L, EXISTING_SELLER_NAME, 5));
+    when(sellerRepository.findTopSellersByProductCount(any(Pageable.class))).thenReturn(top);
+
+    assertEquals(top, sellerService.getTopSellers(null));
+
+    ArgumentCaptor<Pageable> pageable = ArgumentCaptor.forClass(Pageable.class);
+    verify(sellerRepository).findTopSellersByProductCount(pageable.capture());
+    assertEquals(10, pageable.getValue().getPageSize());
+  }
 
-    assertDoesNotThrow(() -> sellerService.deleteSeller(EXISTING_SELLER_NAME));
+  @Test
+  void testGetTopSellers_InvalidLimit() {
+    assertThrows(IllegalArgumentException.class, () -> sellerService.getTopSellers(0));
+    assertThrows(IllegalArgumentException.class, () -> sellerService.getTopSellers(101));
+  }
 
-    verify(sellerRepository, times(1)).delete(any());
+  @Test
+  void testGetSellersEtag() {
+    when(catalogStampRepository.findVersion(CatalogStamp.SELLERS)).thenReturn(Optional.of(7L));
+
+    assertEquals("\"sellers-7\"", sellerService.getSellersEtag());
+    assertThrows(ListingDisabledException.class, () -> sellerService.getAllSellersEtag());
+  }
+
+  @Test
+  void testGetProductsEtag() {
+    when(sellerRepository.findSellerSummaryBySellerName(EXISTING_SELLER_NAME))
+        .thenReturn(Optional.of(existingSellerSummary));
+    when(sellerRepository.findCatalogVersion(EXISTING_SELLER_ID)).thenReturn(Optional.of(3L));
+
+    assertEquals("\"1-3\"", sellerService.getProductsEtag(EXISTING_SELLER_NAME));
+    verify(productRepository, times(0)).findProductViewsBySellerId(any());
+  }
+
+  @Test
+  void testGetProductsEtag_SellerDeletedConcurrently() {
+    sellerCache.put(existingSellerSummary);
+    when(sellerRepository.findCatalogVersion(EXISTING_SELLER_ID)).thenReturn(Optional.empty());
+
+    assertThrows(
+        SellerNotFoundException.class, () -> sellerService.getProductsEtag(EXISTING_SELLER_NAME));
+  }
+
+  @Test
+  void testGetSellerPage_HasNextPage() {
+    List<SellerSummary> sellers = new ArrayList<>();
+    sellers.add(new SellerSummary(1L, EXISTING_SELLER_NAME));
+    sellers.add(new SellerSummary(2L, NEW_SELLER_NAME));
+    when(sellerRepository.findSellerPage(eq(0L), any(Pageable.class))).thenReturn(sellers);
+
+    SellerPage page = sellerService.getSellerPage(null, 1);
+
+    assertEquals(1, page.getSellers().size());
+    assertEquals(EXISTING_SELLER_NAME, page.getSellers().get(0).getSellerName());
+    assertNotNull(page.getNextToken());
+
+    List<SellerSummary> nextSellers = new ArrayList<>();
+    nextSellers.add(new SellerSummary(2L, NEW_SELLER_NAME));
+    when(sellerRepository.findSellerPage(eq(1L), any(Pageable.class))).thenReturn(nextSellers);
+
+    SellerPage nextPage = sellerService.getSellerPage(page.getNextToken(), 1);
+
+    assertEquals(NEW_SELLER_NAME, nextPage.getSellers().get(0).getSellerName());
+    assertNull(nextPage.getNextToken());
+  }
+
+  @Test
+  void testGetSellerPage_InvalidToken() {
+    assertThrows(
+        IllegalArgumentException.class, () -> sellerService.getSellerPage("not a token", null));
+  }
+
+  @Test
+  void testGetSellerPage_InvalidSize() {
+    assertThrows(IllegalArgumentException.class, () -> sellerService.getSellerPage(null, 0));
+  }
+
+  @Test
+  void testDeleteSeller_Success() {
+    when(sellerRepository.findSellerSummaryBySellerName(EXISTING_SELLER_NAME))
+        .thenReturn(Optional.of(existingSellerSummary));
+    when(sellerRepository.markDeleted(eq(EXISTING_SELLER_ID), any())).thenReturn(1);
+    SellerDeletionStatus job =
+        new SellerDeletionStatus(
+            5L,
+            EXISTING_SELLER_ID,
+            EXISTING_SELLER_NAME,
+            SellerDeletionStatus.Status.RUNNING,
+            1,
+            0,
+            null,
+            null,
+            null);
+    when(sellerDeletionService.start(EXISTING_SELLER_ID, EXISTING_SELLER_NAME)).thenReturn(job);
+
+    assertEquals(job, sellerService.deleteSeller(EXISTING_SELLER_NAME));
+
+    verify(sellerRepository, times(0)).deleteSellerById(any());
+    verify(catalogStampRepository).incrementVersion(CatalogStamp.SELLERS);
+    verify(outboxService).sellerDeleted(EXISTING_SELLER_ID, EXISTING_SELLER_NAME);
+    verify(suggestionService).sellerRemoved(EXISTING_SELLER_NAME);
   }
 
   @Test
   void testDeleteSeller_NotFound() {
-    when(sellerRepository.findSellerBySellerName(NON_EXISTING_SELLER_NAME))
+    when(sellerRepository.findSellerSummaryBySellerName(NON_EXISTING_SELLER_NAME))
         .thenReturn(Optional.empty());
 
     assertThrows(
         SellerNotFoundException.class, () -> sellerService.deleteSeller(NON_EXISTING_SELLER_NAME));
 
-    verify(sellerRepository, times(0)).delete(any());
+    verify(sellerRepository, times(0)).markDeleted(any(), any());
+  }
+
+  @Test
+  void testDeleteSeller_DeletedConcurrently() {
+    sellerCache.put(new SellerSummary(EXISTING_SELLER_ID, EXISTING_SELLER_NAME));
+    when(sellerRepository.markDeleted(eq(EXISTING_SELLER_ID), any())).thenReturn(0);
+
+    assertThrows(
+        SellerNotFoundException.class, () -> sellerService.deleteSeller(EXISTING_SELLER_NAME));
+
+    assertTrue(sellerCache.get(EXISTING_SELLER_NAME).isEmpty());
+    verify(suggestionService, times(0)).sellerRemoved(any());
+    verify(sellerDeletionService, times(0)).start(any(), any());
   }
 
   @Test
@@ -99,7 +264,39 @@ class SellerServiceTest {
 
     assertDoesNotThrow(() -> sellerService.createSeller(NEW_SELLER_NAME));
 
-    verify(sellerRepository, times(1)).save(any());
+    verify(sellerRepository, times(1)).saveAndFlush(any());
+    verify(catalogStampRepository).incrementVersion(CatalogStamp.SELLERS);
+  }
+
+  @Test
+  void testCreateSeller_BumpsStampAfterCommit() {
+    when(sellerRepository.existsSellerBySellerName(NEW_SELLER_NAME)).thenReturn(false);
+    TransactionSynchronizationManager.initSynchronization();
+    try {
+      sellerService.createSeller(NEW_SELLER_NAME);
+      verify(catalogStampRepository, never()).incrementVersion(any());
+
+      TransactionSynchronizationManager.getSynchronizations()
+          .forEach(TransactionSynchronization::afterCommit);
+    } finally {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    verify(catalogStampRepository).incrementVersion(CatalogStamp.SELLERS);
+  }
+
+  @Test
+  void testCreateSeller_CreatesMissingStamp() {
+    when(sellerRepository.existsSellerBySellerName(NEW_SELLER_NAME)).thenReturn(false);
+    when(catalogStampRepository.incrementVersion(CatalogStamp.SELLERS)).thenReturn(0);
+
+    sellerService.createSeller(NEW_SELLER_NAME);
+
+    verify(catalogStampRepository)
+        .saveAndFlush(
+            argThat(
+                stamp ->
+                    CatalogStamp.SELLERS.equals(stamp.getScope()) && stamp.getVersion() == 1));
   }
 
   @Test
@@ -109,7 +306,75 @@ class SellerServiceTest {
     assertThrows(
         SellerTakenException.class, () -> sellerService.createSeller(EXISTING_SELLER_NAME));
 
-    verify(sellerRepository, times(0)).save(any());
+    verify(sellerRepository, times(0)).saveAndFlush(any());
+  }
+
+  @Test
+  void testCreateSeller_CachedConflict() {
+    sellerCache.put(new SellerSummary(EXISTING_SELLER_ID, EXISTING_SELLER_NAME));
+
+    assertThrows(
+        SellerTakenException.class, () -> sellerService.createSeller(EXISTING_SELLER_NAME));
+
+    verify(sellerRepository, times(0)).existsSellerBySellerName(any());
+    verify(sellerRepository, times(0)).saveAndFlush(any());
+  }
+
+  @Test
+  void testCreateSeller_ConcurrentConflict() {
+    when(sellerRepository.existsSellerBySellerName(NEW_SELLER_NAME)).thenReturn(false);
+    when(sellerRepository.saveAndFlush(any()))
+        .thenThrow(uniqueViolation(Seller.NAME_CONSTRAINT));
+
+    assertThrows(SellerTakenException.class, () -> sellerService.createSeller(NEW_SELLER_NAME));
+  }
+
+  @Test
+  void testCreateSeller_OtherIntegrityViolationIsNotTranslated() {
+    when(sellerRepository.existsSellerBySellerName(NEW_SELLER_NAME)).thenReturn(false);
+    when(sellerRepository.saveAndFlush(any())).thenThrow(uniqueViolation("some_other_constraint"));
+
+    assertThrows(
+        DataIntegrityViolationException.class, () -> sellerService.createSeller(NEW_SELLER_NAME));
+  }
+
+  @Test
+  void testAddProductToSeller_ConcurrentConflict() {
+    when(sellerRepository.findSellerSummaryBySellerName(EXISTING_SELLER_NAME))
+        .thenReturn(Optional.of(existingSellerSummary));
+    when(sellerRepository.recordCatalogChange(EXISTING_SELLER_ID, 1)).thenReturn(1);
+    when(productRepository.existsByProductNameAndSellerId(NEW_PRODUCT_NAME, EXISTING_SELLER_ID))
+        .thenReturn(false);
+    when(sellerRepository.getReferenceById(EXISTING_SELLER_ID)).thenReturn(existingSeller);
+    when(productRepository.saveAndFlush(any()))
+        .thenThrow(uniqueViolation(Product.SELLER_PRODUCT_CONSTRAINT));
+
+    assertThrows(
+        ProductTakenException.class,
+        () -> sellerService.addProductToSeller(NEW_PRODUCT_NAME, EXISTING_SELLER_NAME));
+    verify(suggestionService, times(0)).productAdded(any(), any());
+  }
+
+  @Test
+  void testGetSellerId_CachedAfterFirstLookup() {
+    when(sellerRepository.findSellerSummaryBySellerName(EXISTING_SELLER_NAME))
+        .thenReturn(Optional.of(existingSellerSummary));
+
+    assertEquals(EXISTING_SELLER_ID, sellerService.getSellerId(EXISTING_SELLER_NAME));
+    assertEquals(EXISTING_SELLER_ID, sellerService.getSellerId(EXISTING_SELLER_NAME));
+
+    verify(sellerRepository, times(1)).findSellerSummaryBySellerName(EXISTING_SELLER_NAME);
+  }
+
+  @Test
+  void testChangeSellerName_EvictsCachedSeller() {
+    sellerCache.put(new SellerSummary(EXISTING_SELLER_ID, EXISTING_SELLER_NAME));
+    when(sellerRepository.existsSellerBySellerName(NEW_SELLER_NAME)).thenReturn(false);
+    when(sellerRepository.renameSeller(EXISTING_SELLER_ID, NEW_SELLER_NAME)).thenReturn(1);
+
+    sellerService.changeSellerName(EXISTING_SELLER_NAME, NEW_SELLER_NAME);
+
+    assertTrue(sellerCache.get(EXISTING_SELLER_NAME).isEmpty());
   }
 
   @Test
@@ -128,12 +393,29 @@ class SellerServiceTest {
 
   @Test
   void testGetAllProducts_SellerExists() {
-    when(sellerRepository.findSellerBySellerName(EXISTING_SELLER_NAME))
-        .thenReturn(Optional.of(existingSeller));
-    products = sellerService.getAllProducts(EXISTING_SELLER_NAME);
-    assertNotNull(products);
-    assertEquals(1, products.size());
-    assertEquals(EXISTING_PRODUCT_NAME, products.get(0).getProductName());
+    when(sellerRepository.findSellerSummaryBySellerName(EXISTING_SELLER_NAME))
+        .thenReturn(Optional.of(existingSellerSummary));
+    when(productRepository.findProductViewsBySellerId(EXISTING_SELLER_ID))
+        .thenReturn(List.of(new ProductView(EXISTING_PRODUCT_ID, EXISTING_PRODUCT_NAME)));
+    List<ProductView> productViews = sellerService.getAllProducts(EXISTING_SELLER_NAME);
+    assertNotNull(productViews);
+    assertEquals(1, productViews.size());
+    assertEquals(EXISTING_PRODUCT_NAME, productViews.get(0).getProductName());
+  }
+
+  @Test
+  void testGetAllProducts_DoesNotCacheSellerReadFromReplica() {
+    sellerService.setReplicaUrl("jdbc:postgresql://replica/FleaMarket");
+    when(sellerRepository.findSellerSummaryBySellerName(EXISTING_SELLER_NAME))
+        .thenReturn(Optional.of(existingSellerSummary));
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+    try {
+      sellerService.getAllProducts(EXISTING_SELLER_NAME);
+    } finally {
+      TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    assertTrue(sellerCache.get(EXISTING_SELLER_NAME).isEmpty());
   }
 
   @Test
@@ -145,36 +427,64 @@ class SellerServiceTest {
         });
   }
 
+  @Test
+  void testExportProducts() {
+    when(productRepository.streamProductsBySellerId(EXISTING_SELLER_ID))
+        .thenReturn(Stream.of(new ProductView(1L, EXISTING_PRODUCT_NAME)));
+    List<ProductView> exported = new ArrayList<>();
+
+    sellerService.exportProducts(EXISTING_SELLER_ID, exported::add);
+
+    assertEquals(1, exported.size());
+    assertEquals(EXISTING_PRODUCT_NAME, exported.get(0).getProductName());
+  }
+
   @Test
   void testChangeSellerName_Success() {
-    when(sellerRepository.findSellerBySellerName(EXISTING_SELLER_NAME))
-        .thenReturn(Optional.of(existingSeller));
+    when(sellerRepository.findSellerSummaryBySellerName(EXISTING_SELLER_NAME))
+        .thenReturn(Optional.of(existingSellerSummary));
     when(sellerRepository.existsSellerBySellerName(NEW_SELLER_NAME)).thenReturn(false);
+    when(sellerRepository.renameSeller(EXISTING_SELLER_ID, NEW_SELLER_NAME)).thenReturn(1);
 
     assertDoesNotThrow(() -> sellerService.changeSellerName(EXISTING_SELLER_NAME, NEW_SELLER_NAME));
 
-    assertEquals(NEW_SELLER_NAME, existingSeller.getSellerName());
-    verify(sellerRepository, times(1)).save(any());
+    verify(sellerRepository, times(1)).renameSeller(EXISTING_SELLER_ID, NEW_SELLER_NAME);
+    verify(catalogStampRepository).incrementVersion(CatalogStamp.SELLERS);
+    verify(outboxService).sellerRenamed(EXISTING_SELLER_ID, EXISTING_SELLER_NAME, NEW_SELLER_NAME);
+    verify(suggestionService).sellerRenamed(EXISTING_SELLER_NAME, NEW_SELLER_NAME);
+  }
+
+  @Test
+  void testChangeSellerName_ConcurrentConflict() {
+    when(sellerRepository.findSellerSummaryBySellerName(EXISTING_SELLER_NAME))
+        .thenReturn(Optional.of(existingSellerSummary));
+    when(sellerRepository.existsSellerBySellerName(NEW_SELLER_NAME)).thenReturn(false);
+    when(sellerRepository.renameSeller(EXISTING_SELLER_ID, NEW_SELLER_NAME))
+        .thenThrow(uniqueViolation(Seller.NAME_CONSTRAINT));
+
+    assertThrows(
+        SellerTakenException.class,
+        () -> sellerService.changeSellerName(EXISTING_SELLER_NAME, NEW_SELLER_NAME));
   }
 
   @Test
   void testChangeSellerName_NotFound() {
-    when(sellerRepository.findSellerBySellerName(NON_EXISTING_SELLER_NAME))
+    when(sellerRepository.findSellerSummaryBySellerName(NON_EXISTING_SELLER_NAME))
         .thenReturn(Optional.empty());
 
     assertThrows(
         SellerNotFoundException.class,
         () -> sellerService.changeSellerName(NON_EXISTING_SELLER_NAME, NEW_SELLER_NAME));
 
-    verify(sellerRepository, times(0)).save(any());
+    verify(sellerRepository, times(0)).renameSeller(any(), any());
   }
 
   @Test
   void testChangeSellerName_Conflict() {
-    when(sellerRepository.findSellerBySellerName(EXISTING_SELLER_NAME))
-        .thenReturn(Optional.of(existingSeller));
-    when(sellerRepository.existsSellerBySellerName(EXISTING_SELLER_NAME)).thenReturn(true);
+    when(sellerRepository.findSellerSummaryBySellerName(EXISTING_SELLER_NAME))
+        .thenReturn(Optional.of(existingSellerSummary));
 
+    // The old name is cached while it is resolved, so the new one is found taken in the cache
     assertThrows(
         SellerTakenException.class,
         () -> sellerService.changeSellerName(EXISTING_SELLER_NAME, EXISTING_SELLER_NAME));
@@ -182,8 +492,8 @@ class SellerServiceTest {
 
   @Test
   void testChangeSellerName_EmptyUsername() {
-    when(sellerRepository.findSellerBySellerName(EXISTING_SELLER_NAME))
-        .thenReturn(Optional.of(existingSeller));
+    when(sellerRepository.findSellerSummaryBySellerName(EXISTING_SELLER_NAME))
+        .thenReturn(Optional.of(existingSellerSummary));
 
     IllegalArgumentException exception =
         assertThrows(
@@ -195,25 +505,46 @@ class SellerServiceTest {
 
   @Test
   void testAddProductToSeller_Success() {
+    when(sellerRepository.findSellerSummaryBySellerName(EXISTING_SELLER_NAME))
+        .thenReturn(Optional.of(existingSellerSummary));
+    when(sellerRepository.recordCatalogChange(EXISTING_SELLER_ID, 1)).thenReturn(1);
+    when(productRepository.existsByProductNameAndSellerId(
+            NON_EXISTING_PRODUCT_NAME, EXISTING_SELLER_ID))
+        .thenReturn(false);
+    when(sellerRepository.getReferenceById(EXISTING_SELLER_ID)).thenReturn(existingSeller);
+    when(productRepository.saveAndFlush(any())).thenReturn(existingProduct);
 
-    existingSeller.setProducts(products);
+    sellerService.addProductToSeller(NON_EXISTING_PRODUCT_NAME, EXISTING_SELLER_NAME);
 
-    when(sellerRepository.findSellerBySellerName(EXISTING_SELLER_NAME))
-        .thenReturn(Optional.of(existingSeller));
+    ArgumentCaptor<Product> productCaptor = ArgumentCaptor.forClass(Product.class);
+    verify(productRepository, times(1)).saveAndFlush(productCaptor.capture());
+    assertEquals(NON_EXISTING_PRODUCT_NAME, productCaptor.getValue().getProductName());
+    assertEquals(existingSeller, productCaptor.getValue().getSeller());
+    verify(sellerRepository).recordCatalogChange(EXISTING_SELLER_ID, 1);
+    verify(outboxService)
+        .productAdded(
+            EXISTING_SELLER_ID,
+            EXISTING_SELLER_NAME,
+            EXISTING_PRODUCT_ID,
+            NON_EXISTING_PRODUCT_NAME);
+  }
 
-    when(productRepository.save(any())).thenReturn(existingProduct);
+  @Test
+  void testAddProductToSeller_SellerDeletedConcurrently() {
+    sellerCache.put(existingSellerSummary);
 
-    sellerService.addProductToSeller(NON_EXISTING_PRODUCT_NAME, EXISTING_SELLER_NAME);
+    assertThrows(
+        SellerNotFoundException.class,
+        () -> sellerService.addProductToSeller(NON_EXISTING_PRODUCT_NAME, EXISTING_SELLER_NAME));
 
-    assertEquals(2, existingSeller.getProducts().size());
-    assertEquals(NON_EXISTING_PRODUCT_NAME, existingSeller.getProducts().get(1).getProductName());
-    verify(productRepository, times(1)).save(any(Product.class));
-    verify(sellerRepository, times(1)).save(existingSeller);
+    assertTrue(sellerCache.get(EXISTING_SELLER_NAME).isEmpty());
+    verify(productRepository, times(0)).saveAndFlush(any());
+    verify(outboxService, times(0)).productAdded(any(), any(), any(), any());
   }
 
   @Test
   void testAddProductToSeller_SellerNotFound() {
-    when(sellerRepository.findSellerBySellerName(NON_EXISTING_SELLER_NAME))
+    when(sellerRepository.findSellerSummaryBySellerName(NON_EXISTING_SELLER_NAME))
         .thenReturn(Optional.empty());
 
     SellerNotFoundException exception =
@@ -228,8 +559,8 @@ class SellerServiceTest {
 
   @Test
   void testAddProductToSeller_ProductParameterEmpty() {
-    when(sellerRepository.findSellerBySellerName(EXISTING_SELLER_NAME))
-        .thenReturn(Optional.of(existingSeller));
+    when(sellerRepository.findSellerSummaryBySellerName(EXISTING_SELLER_NAME))
+        .thenReturn(Optional.of(existingSellerSummary));
 
     IllegalArgumentException exception =
         assertThrows(
@@ -243,8 +574,11 @@ class SellerServiceTest {
 
   @Test
   void testAddProductToSeller_ProductAlreadyAdded() {
-    when(sellerRepository.findSellerBySellerName(EXISTING_SELLER_NAME))
-        .thenReturn(Optional.of(existingSeller));
+    when(sellerRepository.findSellerSummaryBySellerName(EXISTING_SELLER_NAME))
+        .thenReturn(Optional.of(existingSellerSummary));
+    when(sellerRepository.recordCatalogChange(EXISTING_SELLER_ID, 1)).thenReturn(1);
+    when(productRepository.existsByProductNameAndSellerId(EXISTING_PRODUCT_NAME, EXISTING_SELLER_ID))
+        .thenReturn(true);
 
     ProductTakenException exception =
         assertThrows(
@@ -254,24 +588,115 @@ class SellerServiceTest {
             });
 
     assertEquals("Product existingProduct already exists(((((", exception.getMessage());
+    InOrder inOrder = inOrder(sellerRepository, productRepository);
+    inOrder.verify(sellerRepository).recordCatalogChange(EXISTING_SELLER_ID, 1);
+    inOrder
+        .verify(productRepository)
+        .existsByProductNameAndSellerId(EXISTING_PRODUCT_NAME, EXISTING_SELLER_ID);
+    verify(productRepository, times(0)).saveAndFlush(any());
+  }
+
+  @Test
+  void testAddProductsToSeller() {
+    when(sellerRepository.findSellerSummaryBySellerName(EXISTING_SELLER_NAME))
+        .thenReturn(Optional.of(existingSellerSummary));
+    when(sellerRepository.recordCatalogChange(EXISTING_SELLER_ID, 0)).thenReturn(1);
+    when(sellerRepository.recordCatalogChange(EXISTING_SELLER_ID, 1)).thenReturn(1);
+    when(productRepository.findExistingProductNames(
+            EXISTING_SELLER_ID, List.of(EXISTING_PRODUCT_NAME, NEW_PRODUCT_NAME)))
+        .thenReturn(List.of(EXISTING_PRODUCT_NAME));
+    when(sellerRepository.getReferenceById(EXISTING_SELLER_ID)).thenReturn(existingSeller);
+    when(productRepository.saveAll(anyList()))
+        .thenAnswer(
+            invocation -> {
+              List<Product> saved = invocation.getArgument(0);
+              saved.forEach(product -> product.setId(EXISTING_PRODUCT_ID + 1));
+              return saved;
+            });
+
+    BulkAddResult result =
+        sellerService.addProductsToSeller(
+            Arrays.asList(EXISTING_PRODUCT_NAME, NEW_PRODUCT_NAME, " ", NEW_PRODUCT_NAME),
+            EXISTING_SELLER_NAME);
+
+    assertEquals(1, result.getAdded());
+    assertEquals(3, result.getSkipped());
+    assertEquals(BulkAddItem.Status.DUPLICATE, result.getItems().get(0).getStatus());
+    assertEquals(BulkAddItem.Status.ADDED, result.getItems().get(1).getStatus());
+    assertEquals(BulkAddItem.Status.EMPTY, result.getItems().get(2).getStatus());
+    assertEquals(BulkAddItem.Status.DUPLICATE, result.getItems().get(3).getStatus());
+    verify(productRepository, times(1)).saveAll(anyList());
+    InOrder inOrder = inOrder(sellerRepository, productRepository);
+    inOrder.verify(sellerRepository).recordCatalogChange(EXISTING_SELLER_ID, 0);
+    inOrder.verify(productRepository).findExistingProductNames(eq(EXISTING_SELLER_ID), anyList());
+    inOrder.verify(sellerRepository).recordCatalogChange(EXISTING_SELLER_ID, 1);
+  }
+
+  @Test
+  void testAddProductsToSeller_PersistsInChunks() {
+    sellerService.setBulkInsertChunkSize(2);
+    List<String> names = List.of("a", "b", "c", "d", "e");
+    when(sellerRepository.findSellerSummaryBySellerName(EXISTING_SELLER_NAME))
+        .thenReturn(Optional.of(existingSellerSummary));
+    when(sellerRepository.recordCatalogChange(EXISTING_SELLER_ID, 0)).thenReturn(1);
+    when(sellerRepository.recordCatalogChange(EXISTING_SELLER_ID, 5)).thenReturn(1);
+    when(productRepository.findExistingProductNames(EXISTING_SELLER_ID, names))
+        .thenReturn(List.of());
+    when(sellerRepository.getReferenceById(EXISTING_SELLER_ID)).thenReturn(existingSeller);
+    AtomicLong nextId = new AtomicLong(EXISTING_PRODUCT_ID);
+    when(productRepository.saveAll(anyList()))
+        .thenAnswer(
+            invocation -> {
+              List<Product> saved = invocation.getArgument(0);
+              saved.forEach(product -> product.setId(nextId.incrementAndGet()));
+              return saved;
+            });
+
+    BulkAddResult result = sellerService.addProductsToSeller(names, EXISTING_SELLER_NAME);
+
+    assertEquals(5, result.getAdded());
+    verify(productRepository, times(3)).saveAll(anyList());
+    verify(outboxService, times(3)).productsAdded(eq(EXISTING_SELLER_ID), any(), anyList());
+    verify(productRepository, times(3)).flush();
+    verify(entityManager, times(3)).clear();
+    verify(sellerRepository).recordCatalogChange(EXISTING_SELLER_ID, 5);
+  }
+
+  @Test
+  void testAddProductsToSeller_TooManyProducts() {
+    sellerService.setMaxBulkSize(1);
+
+    assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            sellerService.addProductsToSeller(
+                List.of(EXISTING_PRODUCT_NAME, NEW_PRODUCT_NAME), EXISTING_SELLER_NAME));
   }
 
   @Test
   void testDeleteProduct_Success() {
-    existingSeller.setProducts(products);
+    when(sellerRepository.findSellerSummaryBySellerName(EXISTING_SELLER_NAME))
+        .thenReturn(Optional.of(existingSellerSummary));
+    when(sellerRepository.recordCatalogChange(EXISTING_SELLER_ID, -1)).thenReturn(1);
+    when(productRepository.findProductId(EXISTING_SELLER_ID, EXISTING_PRODUCT_NAME))
+        .thenReturn(Optional.of(EXISTING_PRODUCT_ID));
+    when(productRepository.softDeleteProduct(eq(EXISTING_PRODUCT_ID), any())).thenReturn(1);
+    productSellerCache.put(
+        EXISTING_PRODUCT_ID,
+        new SellerSummary(EXISTING_SELLER_ID, EXISTING_SELLER_NAME),
+        productSellerCache.stamp());
 
-    when(sellerRepository.findSellerBySellerName(EXISTING_SELLER_NAME))
-        .thenReturn(Optional.of(existingSeller));
-    sellerService.deleteProduct(EXISTING_PRODUCT_NAME, EXISTING_SELLER_NAME);
+    assertDoesNotThrow(
+        () -> sellerService.deleteProduct(EXISTING_PRODUCT_NAME, EXISTING_SELLER_NAME));
 
-    assertTrue(existingSeller.getProducts().isEmpty());
-    verify(productRepository, times(1)).delete(existingProduct);
-    verify(sellerRepository, times(1)).save(existingSeller);
+    verify(productRepository, times(1)).softDeleteProduct(eq(EXISTING_PRODUCT_ID), any());
+    verify(sellerRepository).recordCatalogChange(EXISTING_SELLER_ID, -1);
+    assertTrue(productSellerCache.get(EXISTING_PRODUCT_ID).isEmpty());
   }
 
   @Test
   void testDeleteProduct_SellerNotFound() {
-    when(sellerRepository.findSellerBySellerName(NON_EXISTING_SELLER_NAME))
+    when(sellerRepository.findSellerSummaryBySellerName(NON_EXISTING_SELLER_NAME))
         .thenReturn(Optional.empty());
 
     SellerNotFoundException exception =
@@ -285,8 +710,10 @@ class SellerServiceTest {
 
   @Test
   void testDeleteProduct_ProductNotFound() {
-    when(sellerRepository.findSellerBySellerName(EXISTING_SELLER_NAME))
-        .thenReturn(Optional.of(existingSeller));
+    when(sellerRepository.findSellerSummaryBySellerName(EXISTING_SELLER_NAME))
+        .thenReturn(Optional.of(existingSellerSummary));
+    when(productRepository.findProductId(EXISTING_SELLER_ID, NON_EXISTING_PRODUCT_NAME))
+        .thenReturn(Optional.empty());
     ProductNotFoundException exception =
         assertThrows(
             ProductNotFoundException.class,
@@ -295,24 +722,36 @@ class SellerServiceTest {
             });
 
     assertEquals("Product nonExistingProduct doesn't exist(((((", exception.getMessage());
+    verify(outboxService, times(0)).productDeleted(any(), any(), any(), any());
   }
 
   @Test
   void testChangeProduct_Success() {
-    when(sellerRepository.findSellerBySellerName(EXISTING_SELLER_NAME))
-        .thenReturn(Optional.of(existingSeller));
+    when(sellerRepository.findSellerSummaryBySellerName(EXISTING_SELLER_NAME))
+        .thenReturn(Optional.of(existingSellerSummary));
+    when(sellerRepository.recordCatalogChange(EXISTING_SELLER_ID, 0)).thenReturn(1);
+    when(productRepository.existsByProductNameAndSellerId(NEW_PRODUCT_NAME, EXISTING_SELLER_ID))
+        .thenReturn(false);
+    when(productRepository.renameProduct(
+            EXISTING_SELLER_ID, EXISTING_PRODUCT_NAME, NEW_PRODUCT_NAME))
+        .thenReturn(1);
     assertDoesNotThrow(
         () ->
             sellerService.changeProduct(
                 EXISTING_PRODUCT_NAME, NEW_PRODUCT_NAME, EXISTING_SELLER_NAME));
-    assertEquals(NEW_PRODUCT_NAME, existingProduct.getProductName());
-    verify(productRepository, times(1)).save(existingProduct);
+    verify(productRepository, times(1))
+        .renameProduct(EXISTING_SELLER_ID, EXISTING_PRODUCT_NAME, NEW_PRODUCT_NAME);
+    verify(sellerRepository).recordCatalogChange(EXISTING_SELLER_ID, 0);
   }
 
   @Test
   void testChangeProduct_ProductNotFound() {
-    when(sellerRepository.findSellerBySellerName(EXISTING_SELLER_NAME))
-        .thenReturn(Optional.of(existingSeller));
+    when(sellerRepository.findSellerSummaryBySellerName(EXISTING_SELLER_NAME))
+        .thenReturn(Optional.of(existingSellerSummary));
+    when(sellerRepository.recordCatalogChange(EXISTING_SELLER_ID, 0)).thenReturn(1);
+    when(productRepository.renameProduct(
+            EXISTING_SELLER_ID, NON_EXISTING_PRODUCT_NAME, NEW_PRODUCT_NAME))
+        .thenReturn(0);
     ProductNotFoundException exception =
         assertThrows(
             ProductNotFoundException.class,
@@ -326,13 +765,11 @@ class SellerServiceTest {
 
   @Test
   void testChangeProduct_DuplicateProductName() {
-    Product newProduct = new Product();
-    newProduct.setProductName(NEW_PRODUCT_NAME);
-    newProduct.setSeller(existingSeller);
-    products.add(newProduct);
-    existingSeller.setProducts(products);
-    when(sellerRepository.findSellerBySellerName(EXISTING_SELLER_NAME))
-        .thenReturn(Optional.of(existingSeller));
+    when(sellerRepository.findSellerSummaryBySellerName(EXISTING_SELLER_NAME))
+        .thenReturn(Optional.of(existingSellerSummary));
+    when(sellerRepository.recordCatalogChange(EXISTING_SELLER_ID, 0)).thenReturn(1);
+    when(productRepository.existsByProductNameAndSellerId(NEW_PRODUCT_NAME, EXISTING_SELLER_ID))
+        .thenReturn(true);
     ProductTakenException exception =
         assertThrows(
                 ProductTakenException.class,
@@ -342,11 +779,12 @@ class SellerServiceTest {
     assertEquals(
         "Product newProduct already exists(((((",
         exception.getMessage());
+    verify(productRepository, times(0)).renameProduct(any(), any(), any());
   }
 
   @Test
   void testChangeProduct_SellerNotFound() {
-    when(sellerRepository.findSellerBySellerName(NON_EXISTING_SELLER_NAME))
+    when(sellerRepository.findSellerSummaryBySellerName(NON_EXISTING_SELLER_NAME))
         .thenReturn(Optional.empty());
 
     SellerNotFoundException exception =
@@ -362,8 +800,8 @@ class SellerServiceTest {
 
   @Test
   void testChangeProduct_EmptyProduct() {
-    when(sellerRepository.findSellerBySellerName(EXISTING_SELLER_NAME))
-        .thenReturn(Optional.of(existingSeller));
+    when(sellerRepository.findSellerSummaryBySellerName(EXISTING_SELLER_NAME))
+        .thenReturn(Optional.of(existingSellerSummary));
 
     IllegalArgumentException exception =
         assertThrows(
@@ -371,4 +809,10 @@ class SellerServiceTest {
             () -> sellerService.changeProduct(EXISTING_PRODUCT_NAME, "", EXISTING_SELLER_NAME));
     assertEquals("Product parameter cannot be empty", exception.getMessage());
   }
+
+  private static DataIntegrityViolationException uniqueViolation(String constraint) {
+    return new DataIntegrityViolationException(
+        "duplicate key",
+        new ConstraintViolationException("duplicate key", new SQLException(), constraint));
+  }
 }
@@ -0,0 +1,167 @@
+package market.fleaMarket.service;
+
+import com.fleamarket.dao.ProductRepository;
+import com.fleamarket.dao.SellerRepository;
+import com.fleamarket.model.dto.SellerProductName;
+import com.fleamarket.model.dto.SuggestionStats;
+import com.fleamarket.model.dto.Suggestions;
+import com.fleamarket.service.SuggestionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SuggestionServiceTest {
+  private static final Long ANNA = 1L;
+  private static final Long PHILIP = 2L;
+
+  @Mock private ProductRepository productRepository;
+  @Mock private SellerRepository sellerRepository;
+  @Mock private PlatformTransactionManager transactionManager;
+
+  @InjectMocks private SuggestionService suggestionService;
+
+  @BeforeEach
+  public void setup() {
+    MockitoAnnotations.openMocks(this);
+    suggestionService.setTransactionManager(transactionManager);
+    when(productRepository.streamAllProductNames())
+        .thenReturn(
+            Stream.of(
+                product(ANNA, "Phone"),
+                product(ANNA, "phone case"),
+                product(ANNA, "Laptop"),
+                product(PHILIP, "Phone")));
+    when(sellerRepository.streamAllSellerNames()).thenReturn(Stream.of("philip", "anna"));
+    suggestionService.rebuild();
+  }
+
+  @Test
+  void testSuggest_IgnoresCase() {
+    Suggestions suggestions = suggestionService.suggest("PH", null);
+
+    assertEquals(List.of("Phone", "phone case"), suggestions.getProducts());
+    assertEquals(List.of("philip"), suggestions.getSellers());
+  }
+
+  @Test
+  void testSuggest_RespectsLimit() {
+    Suggestions suggestions = suggestionService.suggest("ph", 1);
+
+    assertEquals(List.of("Phone"), suggestions.getProducts());
+  }
+
+  @Test
+  void testSuggest_InvalidArguments() {
+    assertThrows(IllegalArgumentException.class, () -> suggestionService.suggest("", null));
+    assertThrows(IllegalArgumentException.class, () -> suggestionService.suggest("ph", 0));
+    assertThrows(IllegalArgumentException.class, () -> suggestionService.suggest("ph", 51));
+  }
+
+  @Test
+  void testDuplicateNameSurvivesSingleRemoval() {
+    suggestionService.productRemoved(ANNA, "Phone");
+    assertEquals(
+        List.of("Phone", "phone case"), suggestionService.suggest("ph", null).getProducts());
+
+    suggestionService.productRemoved(PHILIP, "Phone");
+    assertEquals(List.of("phone case"), suggestionService.suggest("ph", null).getProducts());
+  }
+
+  @Test
+  void testSpellingsDifferingInCaseAreKeptApart() {
+    suggestionService.productAdded(PHILIP, "LAPTOP");
+
+    assertEquals(List.of("LAPTOP", "Laptop"), suggestionService.suggest("lap", null).getProducts());
+
+    suggestionService.productRemoved(ANNA, "Laptop");
+    assertEquals(List.of("LAPTOP"), suggestionService.suggest("lap", null).getProducts());
+
+    suggestionService.productRenamed(PHILIP, "LAPTOP", "laptop");
+    assertEquals(List.of("laptop"), suggestionService.suggest("lap", null).getProducts());
+  }
+
+  @Test
+  void testRebuildKeepsServingAndReplaysConcurrentChanges() {
+    when(productRepository.streamAllProductNames())
+        .thenAnswer(
+            invocation -> {
+              // The old index still answers while the new one is loaded
+              assertEquals(
+                  List.of("Laptop"), suggestionService.suggest("lap", null).getProducts());
+              suggestionService.productAdded(ANNA, "Tablet");
+              return Stream.of(product(ANNA, "Laptop"));
+            });
+    when(sellerRepository.streamAllSellerNames()).thenReturn(Stream.of("anna"));
+
+    suggestionService.rebuild();
+
+    assertEquals(List.of("Tablet"), suggestionService.suggest("tab", null).getProducts());
+    assertTrue(suggestionService.suggest("ph", null).getProducts().isEmpty());
+  }
+
+  @Test
+  void testRebuildDoesNotReplayChangesTheSnapshotContains() {
+    when(productRepository.streamAllProductNames())
+        .thenAnswer(
+            invocation -> {
+              // Both changes committed before the rows were read
+              suggestionService.productAdded(ANNA, "Tablet");
+              suggestionService.productRemoved(ANNA, "Phone");
+              return Stream.of(product(ANNA, "Tablet"), product(PHILIP, "Phone"));
+            });
+    when(sellerRepository.streamAllSellerNames())
+        .thenAnswer(
+            invocation -> {
+              suggestionService.sellerAdded("bella");
+              return Stream.of("anna", "bella");
+            });
+
+    suggestionService.rebuild();
+    suggestionService.productRemoved(ANNA, "Tablet");
+    suggestionService.sellerRemoved("bella");
+
+    assertTrue(suggestionService.suggest("tab", null).getProducts().isEmpty());
+    assertEquals(List.of("Phone"), suggestionService.suggest("ph", null).getProducts());
+    assertTrue(suggestionService.suggest("bel", null).getSellers().isEmpty());
+    assertEquals(1, suggestionService.getStats().getProductNames());
+  }
+
+  @Test
+  void testRenames() {
+    suggestionService.productRenamed(ANNA, "Laptop", "Tablet");
+    suggestionService.sellerRenamed("anna", "annette");
+
+    assertTrue(suggestionService.suggest("lap", null).getProducts().isEmpty());
+    assertEquals(List.of("Tablet"), suggestionService.suggest("tab", null).getProducts());
+    assertEquals(List.of("annette"), suggestionService.suggest("ann", null).getSellers());
+  }
+
+  @Test
+  void testGetStats() {
+    SuggestionStats stats = suggestionService.getStats();
+
+    assertEquals(3, stats.getProductNames());
+    assertEquals(2, stats.getSellerNames());
+    assertTrue(stats.getEstimatedBytes() > 0);
+    assertEquals(
+        stats.getEstimatedBytes() * 1_000_000 / 5, stats.getEstimatedBytesPerMillionNames());
+  }
+
+  private static SellerProductName product(Long sellerId, String name) {
+    return new SellerProductName(sellerId, name);
+  }
+}
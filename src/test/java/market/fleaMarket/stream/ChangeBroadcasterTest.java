@@ -0,0 +1,224 @@
+package market.fleaMarket.stream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fleamarket.controller.ChangeController;
+import com.fleamarket.controller.SellerController;
+import com.fleamarket.model.dto.ChangeEvent;
+import com.fleamarket.model.dto.ChangeFeed;
+import com.fleamarket.service.OutboxService;
+import com.fleamarket.service.SellerService;
+import com.fleamarket.stream.ChangeBroadcaster;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+class ChangeBroadcasterTest {
+  private static final Long SELLER_ID = 1L;
+  private static final String SELLER_NAME = "anna";
+  private static final int BUFFER_SIZE = 3;
+  private static final int PAGE_SIZE = 100;
+
+  @Mock private OutboxService outboxService;
+  @Mock private SellerService sellerService;
+  private SimpleMeterRegistry meterRegistry;
+  private ChangeBroadcaster changeBroadcaster;
+  private List<Runnable> pendingDrains;
+  private List<ChangeEvent> outbox;
+  private MockMvc mockMvc;
+
+  @BeforeEach
+  public void setup() {
+    MockitoAnnotations.openMocks(this);
+    meterRegistry = new SimpleMeterRegistry();
+    changeBroadcaster =
+        new ChangeBroadcaster(
+            outboxService, BUFFER_SIZE, Duration.ofMinutes(1), 1, PAGE_SIZE, meterRegistry);
+    changeBroadcaster.setDispatcher(Runnable::run);
+    pendingDrains = new ArrayList<>();
+    mockMvc =
+        MockMvcBuilders.standaloneSetup(
+                new ChangeController(outboxService, changeBroadcaster),
+                new SellerController(
+                    sellerService, new ObjectMapper(), changeBroadcaster, null, null))
+            .build();
+    when(sellerService.getSellerId(SELLER_NAME)).thenReturn(SELLER_ID);
+    outbox = new ArrayList<>();
+    when(outboxService.getChanges(anyLong(), anyInt()))
+        .thenAnswer(invocation -> changes(invocation.getArgument(0), invocation.getArgument(1)));
+  }
+
+  @Test
+  void testBulkAdditionIsSentAsOneEvent() throws Exception {
+    when(outboxService.getLastPosition()).thenReturn(10L);
+    MvcResult stream = subscribe("/changes/stream", null);
+    outbox.addAll(List.of(added(11L, "a"), added(12L, "b"), added(13L, "c")));
+
+    changeBroadcaster.poll();
+
+    String body = stream.getResponse().getContentAsString();
+    assertEquals(1, count(body, "event:"));
+    assertTrue(body.startsWith("id:13\nevent:PRODUCTS_ADDED\n"));
+    assertTrue(body.contains("\"productName\":\"a\""));
+    assertTrue(body.contains("\"productName\":\"c\""));
+  }
+
+  @Test
+  void testResumesAfterLastEventId() throws Exception {
+    when(outboxService.getLastPosition()).thenReturn(8L);
+    outbox.addAll(
+        List.of(
+            event(6L, ChangeEvent.Type.SELLER_RENAMED),
+            event(7L, ChangeEvent.Type.SELLER_CREATED),
+            event(8L, ChangeEvent.Type.PRODUCT_DELETED),
+            event(9L, ChangeEvent.Type.PRODUCT_RENAMED)));
+    MvcResult stream = subscribe("/changes/stream", 5L);
+
+    changeBroadcaster.poll();
+
+    String body = stream.getResponse().getContentAsString();
+    assertEquals(List.of("6", "7", "8", "9"), ids(body));
+  }
+
+  @Test
+  void testLongReplayEndsWithPositionReached() throws Exception {
+    when(outboxService.getLastPosition()).thenReturn(50L);
+    LongStream.rangeClosed(1, 50)
+        .forEach(position -> outbox.add(event(position, ChangeEvent.Type.SELLER_CREATED)));
+    MvcResult stream = subscribe("/changes/stream", 0L);
+
+    changeBroadcaster.poll();
+
+    String body = stream.getResponse().getContentAsString();
+    assertEquals(List.of("1", "2", "3", "3"), ids(body));
+    assertTrue(body.endsWith("id:3\n\n"));
+    assertEquals(0.0, subscribers());
+  }
+
+  @Test
+  void testSellerStreamClosesAfterDeletionIsDelivered() throws Exception {
+    when(outboxService.getLastPosition()).thenReturn(10L);
+    MvcResult stream = subscribe("/sellers/" + SELLER_NAME + "/products/stream", null);
+    outbox.addAll(
+        List.of(
+            event(11L, ChangeEvent.Type.SELLER_RENAMED),
+            event(12L, ChangeEvent.Type.PRODUCT_DELETED),
+            event(13L, ChangeEvent.Type.SELLER_DELETED)));
+
+    changeBroadcaster.poll();
+
+    String body = stream.getResponse().getContentAsString();
+    assertEquals(List.of("12", "13"), ids(body));
+    assertTrue(body.contains("event:SELLER_DELETED"));
+    assertEquals(0.0, subscribers());
+  }
+
+  @Test
+  void testOverflowingSubscriberIsDisconnected() throws Exception {
+    changeBroadcaster.setDispatcher(pendingDrains::add);
+    when(outboxService.getLastPosition()).thenReturn(0L);
+    MvcResult slow = subscribe("/changes/stream", null);
+    changeBroadcaster.poll();
+    LongStream.rangeClosed(1, BUFFER_SIZE + 3)
+        .forEach(position -> outbox.add(event(position, ChangeEvent.Type.SELLER_RENAMED)));
+
+    changeBroadcaster.poll();
+
+    assertEquals(1.0, meterRegistry.get("fleamarket.sse.dropped").counter().count());
+    assertEquals(0.0, subscribers());
+    pendingDrains.forEach(Runnable::run);
+    assertFalse(slow.getResponse().getContentAsString().contains("id:" + (BUFFER_SIZE + 3)));
+  }
+
+  @Test
+  void testSubscriberIsRemovedWhenClientGoesAway() throws Exception {
+    when(outboxService.getLastPosition()).thenReturn(0L);
+    MvcResult stream = subscribe("/changes/stream", null);
+    changeBroadcaster.poll();
+    assertEquals(1.0, subscribers());
+
+    stream.getRequest().getAsyncContext().complete();
+    changeBroadcaster.poll();
+
+    assertEquals(0.0, subscribers());
+    verify(outboxService, times(1)).getChanges(anyLong(), anyInt());
+  }
+
+  private MvcResult subscribe(String uri, Long lastEventId) throws Exception {
+    MockHttpServletRequestBuilder builder = get(uri);
+    if (lastEventId != null) {
+      builder.header("Last-Event-ID", lastEventId);
+    }
+    return mockMvc.perform(builder).andExpect(request().asyncStarted()).andReturn();
+  }
+
+  private ChangeFeed changes(long since, int limit) {
+    List<ChangeEvent> events =
+        outbox.stream().filter(event -> event.getPosition() > since).limit(limit).toList();
+    long cursor = events.isEmpty() ? since : events.get(events.size() - 1).getPosition();
+    return new ChangeFeed(events, cursor);
+  }
+
+  private double subscribers() {
+    return meterRegistry.get("fleamarket.sse.subscribers").gauge().value();
+  }
+
+  private static List<String> ids(String body) {
+    return body.lines()
+        .filter(line -> line.startsWith("id:"))
+        .map(line -> line.substring(3))
+        .toList();
+  }
+
+  private static int count(String body, String prefix) {
+    return (int) body.lines().filter(line -> line.startsWith(prefix)).count();
+  }
+
+  private static ChangeEvent added(Long position, String productName) {
+    return new ChangeEvent(
+        position + 100,
+        position,
+        ChangeEvent.Type.PRODUCT_ADDED,
+        SELLER_ID,
+        SELLER_NAME,
+        position,
+        productName,
+        null,
+        Instant.parse("2024-07-01T12:00:00Z"));
+  }
+
+  private static ChangeEvent event(Long position, ChangeEvent.Type type) {
+    return new ChangeEvent(
+        position + 100,
+        position,
+        type,
+        SELLER_ID,
+        SELLER_NAME,
+        null,
+        null,
+        null,
+        Instant.parse("2024-07-01T12:00:00Z"));
+  }
+}